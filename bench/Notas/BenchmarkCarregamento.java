@@ -0,0 +1,91 @@
+package Notas;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark JMH de carregamento: mede carregarSistema para quantidades crescentes de alunos. O tempo
+ * deve crescer aproximadamente na mesma proporção que 'alunos' (escala linear). Ao fim de cada
+ * combinação, imprime os tempos por etapa (RelatorioCarregamento) do último carregamento.
+ *
+ * Uso: mvn -P jmh package && java -jar target/benchmarks.jar BenchmarkCarregamento
+ *      [-p alunos=12500,25000,50000,100000] [-p formato=TEXTO,BINARIO]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BenchmarkCarregamento {
+    private static final int ALUNOS_POR_TURMA = 40;
+
+    @Param({"12500", "25000", "50000", "100000"})
+    public int alunos;
+
+    @Param({"TEXTO"})
+    public FormatoSnapshot formato;
+
+    private File arquivo;
+    private int turmas;
+    private Entrada io;
+    private Sistema ultimo;
+    private PrintStream saida;
+
+    @Setup(Level.Trial)
+    public void gerarArquivo() throws IOException {
+        this.saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Entrada e Sistema imprimem mensagens
+        this.io = new Entrada();
+        this.arquivo = File.createTempFile("bench-dados", ".txt");
+
+        // Turmas de ALUNOS_POR_TURMA alunos, com duas provas de 3 questões e um trabalho
+        Sistema s = new CenarioBenchmark(alunos, alunos / ALUNOS_POR_TURMA, 3, 3).criarSistema();
+        s.setFormatoSnapshot(formato);
+        s.salvarSistema(arquivo.getPath(), io);
+        this.turmas = s.getTurmasResidentes().size(); // Só os dois semestres mais recentes; os demais vão para o arquivo morto
+    }
+
+    @Benchmark
+    public Sistema carregarSistema() {
+        Sistema s = new Sistema();
+        s.carregarSistema(arquivo.getPath(), io);
+        this.ultimo = s;
+        return s;
+    }
+
+    @TearDown(Level.Trial)
+    public void conferirEApagar() {
+        System.setOut(this.saida);
+        try {
+            if (ultimo.getAlunos().size() != alunos || ultimo.getTurmasResidentes().size() != turmas) {
+                throw new IllegalStateException("Carregamento incompleto no benchmark.");
+            }
+            System.out.println("etapas (" + alunos + " alunos, " + formato + "): " + ultimo.getRelatorioCarregamento().resumoTempos());
+        } finally {
+            new File(Sistema.nomeDiario(arquivo.getPath())).delete();
+            new File(IndiceSnapshot.nomeIndice(arquivo.getPath())).delete();
+            for (File semestre : ArquivoMorto.arquivosSemestres(arquivo.getPath())) {
+                semestre.delete();
+            }
+            arquivo.delete();
+        }
+    }
+}
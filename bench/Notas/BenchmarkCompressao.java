@@ -0,0 +1,113 @@
+package Notas;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark do snapshot compactado: compara, para o mesmo sistema, os bytes em disco e o tempo de
+ * gravação e de leitura dos formatos TEXTO, BINARIO e COMPACTADO (em vários níveis do Deflater).
+ *
+ * Uso: java -cp <classes> Notas.BenchmarkCompressao [--alunos 20000] [--questoes 5] [--niveis 1,6,9] [--iteracoes 5]
+ *
+ * A leitura inclui o acesso a todas as notas, para que o carregamento sob demanda do formato texto
+ * não esconda o custo de interpretá-las. A saída é uma linha CSV por formato/nível com o melhor tempo.
+ */
+public class BenchmarkCompressao {
+    private static final int ALUNOS_POR_TURMA = 40;
+
+    // Evita que o JIT descarte resultados não usados
+    private static long blackhole;
+
+    private interface Gravacao {
+        void gravar(String fileName) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int alunos = 20_000;
+        int questoes = 5;
+        String niveis = "1,6,9";
+        int iteracoes = 5;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--alunos": alunos = Integer.parseInt(args[i + 1]); break;
+                case "--questoes": questoes = Integer.parseInt(args[i + 1]); break;
+                case "--niveis": niveis = args[i + 1]; break;
+                case "--iteracoes": iteracoes = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Parâmetro desconhecido: " + args[i]);
+            }
+        }
+
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Entrada e Sistema imprimem mensagens
+        Entrada io = new Entrada();
+        Sistema s = new CenarioBenchmark(alunos, Math.max(1, alunos / ALUNOS_POR_TURMA), 3, questoes).criarSistema();
+        List<Professor> profs = new ArrayList<>(s.getProfs());
+        List<Aluno> listaAlunos = new ArrayList<>(s.getAlunos());
+        List<Turma> turmas = new ArrayList<>(s.getTurmas());
+
+        saida.println("formato;nivel;bytes;razao_texto;gravar_ms;gravar_MB_s;carregar_ms");
+        long bytesTexto = medir("TEXTO", "-", iteracoes, io, saida, -1,
+                f -> new SnapshotTexto().salvar(f, profs, listaAlunos, turmas, 0));
+        medir("BINARIO", "-", iteracoes, io, saida, bytesTexto,
+                f -> SnapshotBinario.salvar(f, profs, listaAlunos, turmas));
+        for (String nivel : niveis.split(",")) {
+            int n = Integer.parseInt(nivel.trim());
+            medir("COMPACTADO", String.valueOf(n), iteracoes, io, saida, bytesTexto,
+                    f -> SnapshotCompactado.salvar(f, profs, listaAlunos, turmas, n));
+        }
+        System.setOut(saida);
+        System.out.println("blackhole=" + blackhole);
+    }
+
+    // Mede gravação e leitura de um formato; devolve o tamanho do arquivo gravado
+    private static long medir(String formato, String nivel, int iteracoes, Entrada io, PrintStream saida,
+                              long bytesTexto, Gravacao gravacao) throws Exception {
+        File arquivo = File.createTempFile("bench-compressao", ".dat");
+        arquivo.deleteOnExit();
+        try {
+            long melhorGravar = Long.MAX_VALUE;
+            long melhorCarregar = Long.MAX_VALUE;
+            for (int i = 0; i <= iteracoes; i++) { // A primeira rodada é de aquecimento
+                long inicio = System.nanoTime();
+                gravacao.gravar(arquivo.getPath());
+                long gravou = System.nanoTime();
+                Sistema carregado = new Sistema();
+                carregado.carregarSistema(arquivo.getPath(), io);
+                blackhole += tocarNotas(carregado);
+                long carregou = System.nanoTime();
+                if (i > 0) {
+                    melhorGravar = Math.min(melhorGravar, gravou - inicio);
+                    melhorCarregar = Math.min(melhorCarregar, carregou - gravou);
+                }
+            }
+            long bytes = arquivo.length();
+            String razao = (bytesTexto > 0) ? String.format("%.3f", (double) bytes / bytesTexto) : "1.000";
+            // Vazão sobre o tamanho do texto equivalente, para comparar o custo por dado gravado
+            double mbPorSegundo = ((bytesTexto > 0) ? bytesTexto : bytes) / 1e6 / (melhorGravar / 1e9);
+            saida.println(String.format("%s;%s;%d;%s;%.1f;%.1f;%.1f", formato, nivel, bytes, razao,
+                    melhorGravar / 1e6, mbPorSegundo, melhorCarregar / 1e6));
+            return bytes;
+        } finally {
+            arquivo.delete();
+            new File(IndiceSnapshot.nomeIndice(arquivo.getPath())).delete();
+            new File(Sistema.nomeDiario(arquivo.getPath())).delete();
+        }
+    }
+
+    private static long tocarNotas(Sistema s) {
+        long total = 0;
+        for (Turma t : s.getTurmasResidentes()) {
+            for (Avaliacao av : t.getAvs()) {
+                if (av instanceof Prova) {
+                    total += ((Prova) av).getAlunosProvas().size();
+                } else if (av instanceof Trabalho) {
+                    total += ((Trabalho) av).getGrupos().size();
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,116 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark JMH da leitura de notas de um arquivo no formato de dados.txt usando
+ * Scanner (Entrada.lerDoubleArquivo(Scanner)) e LeitorDados (Entrada.lerDoubleArquivo(LeitorDados)).
+ * Antes de medir, confere que os dois caminhos produzem exatamente os mesmos valores.
+ *
+ * Uso: mvn -P jmh package && java -jar target/benchmarks.jar BenchmarkLeitorDados [-p notas=1000000]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkLeitorDados {
+    @Param({"1000000"})
+    public int notas;
+
+    private File arquivo;
+    private Entrada io;
+
+    @Setup(Level.Trial)
+    public void gerarArquivo() throws IOException {
+        this.io = new Entrada();
+        this.arquivo = File.createTempFile("bench-notas", ".txt");
+        gerarArquivo(arquivo, notas);
+
+        double[] viaScanner = lerComScanner();
+        double[] viaLeitor = lerComLeitorDados();
+        for (int i = 0; i < notas; i++) {
+            if (Double.doubleToRawLongBits(viaScanner[i]) != Double.doubleToRawLongBits(viaLeitor[i])) {
+                throw new IllegalStateException("Valores divergentes na nota " + i + ": " + viaScanner[i] + " x " + viaLeitor[i]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void apagar() {
+        arquivo.delete();
+    }
+
+    @Benchmark
+    public double[] scanner() throws IOException {
+        return lerComScanner();
+    }
+
+    @Benchmark
+    public double[] leitorDados() throws IOException {
+        return lerComLeitorDados();
+    }
+
+    private double[] lerComScanner() throws IOException {
+        double[] valores = new double[notas];
+        try (Scanner sc = new Scanner(new FileInputStream(arquivo))) {
+            for (int i = 0; i < notas; i++) {
+                valores[i] = io.lerDoubleArquivo(sc);
+            }
+        }
+        return valores;
+    }
+
+    private double[] lerComLeitorDados() throws IOException {
+        double[] valores = new double[notas];
+        try (LeitorDados leitor = new LeitorDados(arquivo.getPath())) {
+            for (int i = 0; i < notas; i++) {
+                valores[i] = io.lerDoubleArquivo(leitor);
+            }
+        }
+        return valores;
+    }
+
+    // Gera notas no mesmo formato de salvarSistema (String.valueOf(double)), com comentários ocasionais
+    private static void gerarArquivo(File arquivo, int nNotas) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(arquivo))) {
+            for (int i = 0; i < nNotas; i++) {
+                if (i % 1000 == 0) {
+                    writer.write("# bloco " + (i / 1000)); writer.newLine();
+                    writer.newLine();
+                }
+                double nota;
+                switch (i % 4) {
+                    case 0: nota = random.nextInt(11); break;           // 7.0
+                    case 1: nota = random.nextInt(21) / 2.0; break;      // 8.5
+                    case 2: nota = random.nextInt(1001) / 100.0; break;  // 3.47
+                    default: nota = random.nextDouble() * 10; break;     // 6.123456789012345
+                }
+                writer.write(String.valueOf(nota)); writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package Notas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark JMH da exibição das médias de uma turma: o caminho anterior de Turma.medias (String.format
+ * por nota e System.out.print por trecho) contra RelatorioMedias (formatação direta em buffer e um
+ * Writer com buffer por listagem).
+ *
+ * Uso: mvn -P jmh package && java -jar target/benchmarks.jar BenchmarkRelatorio
+ *      [-p alunos=20000] [-p turmas=10] [-p avaliacoes=6]
+ *
+ * As médias são calculadas no setup (MediasTurma em cache), para medir só a formatação e a escrita.
+ * System.out é trocado por um PrintStream (codificação padrão) sobre um destino nulo. Antes de medir,
+ * o setup confere que os dois caminhos geram os mesmos bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BenchmarkRelatorio {
+    @Param({"20000"})
+    public int alunos;
+    @Param({"10"})
+    public int turmas;
+    @Param({"6"})
+    public int avaliacoes;
+
+    private List<Turma> listaTurmas;
+    private PrintStream saida;
+
+    private interface Operacao {
+        long executar() throws Exception;
+    }
+
+    @Setup(Level.Trial)
+    public void criar() throws Exception {
+        this.saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Sistema s = new CenarioBenchmark(alunos, turmas, avaliacoes, 5).criarSistema();
+        this.listaTurmas = s.getTurmas();
+        for (Turma t : listaTurmas) {
+            t.getMedias();
+        }
+
+        // Os dois caminhos precisam gerar exatamente os mesmos bytes
+        String anterior = capturar(() -> listarAnterior(listaTurmas));
+        String novo = capturar(() -> listarNovo(listaTurmas));
+        if (!anterior.equals(novo)) {
+            throw new IllegalStateException("Os relatórios divergem: " + anterior.length() + " x " + novo.length() + " caracteres.");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        System.setOut(this.saida);
+    }
+
+    @Benchmark
+    public long stringFormatSystemOut() {
+        return listarAnterior(listaTurmas);
+    }
+
+    @Benchmark
+    public long relatorioMedias() throws Exception {
+        return listarNovo(listaTurmas);
+    }
+
+    // O corpo de Turma.medias antes de RelatorioMedias, sobre o mesmo MediasTurma
+    private static long listarAnterior(List<Turma> turmas) {
+        for (Turma t : turmas) {
+            MediasTurma m = t.getMedias();
+            System.out.println("Médias da Turma " + m.getNomeTurma() + "(" + m.getAno() + "/" + m.getSemestre() + "):");
+            if (m.getAlunos().isEmpty()) {
+                System.out.println("Não há alunos nesta turma para calcular as médias.");
+                continue;
+            }
+            for (int posicao = 0; posicao < m.getAlunos().size(); posicao++) {
+                int i = m.getAlunoNaPosicao(posicao);
+                System.out.print(m.getAlunos().get(i).toString() + ": ");
+                for (int j = 0; j < m.getAvs().size(); j++) {
+                    double nota = m.getNota(i, j);
+                    if (Double.isNaN(nota)) {
+                        System.out.print("0 (Erro) ");
+                    } else {
+                        System.out.print(String.format("%.1f", nota) + " ");
+                    }
+                }
+                System.out.println(String.format("= %.2f", m.getTotal(i)));
+            }
+            System.out.printf("Média da turma: %.2f%n", m.getMediaTurma());
+        }
+        return turmas.size();
+    }
+
+    private static long listarNovo(List<Turma> turmas) throws Exception {
+        Writer w = RelatorioMedias.console();
+        RelatorioMedias relatorio = new RelatorioMedias(w);
+        for (Turma t : turmas) {
+            relatorio.escrever(t.getMedias());
+        }
+        w.flush();
+        return turmas.size();
+    }
+
+    private static String capturar(Operacao op) throws Exception {
+        PrintStream anterior = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes));
+        try {
+            op.executar();
+        } finally {
+            System.out.flush();
+            System.setOut(anterior);
+        }
+        return bytes.toString();
+    }
+}
@@ -0,0 +1,201 @@
+package Notas;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH dos caminhos de persistência, busca e relatório do Sistema.
+ *
+ * Uso: mvn -P jmh package && java -jar target/benchmarks.jar BenchmarkSistema
+ *      [-p alunos=1000,10000] [-p turmas=10,100] [-p avaliacoes=3] [-p questoes=5] [-p formato=TEXTO,BINARIO,COMPACTADO]
+ *
+ * Cada combinação de alunos x turmas x avaliações x questões gera um cenário (Cenario); a gravação
+ * completa e a leitura variam também o formato do snapshot. A gravação incremental só existe no
+ * formato texto, o único que reaproveita segmentos do snapshot anterior.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkSistema {
+    private static final int BUSCAS_POR_OPERACAO = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Cenario {
+        @Param({"1000", "10000"})
+        public int alunos;
+        @Param({"10", "100"})
+        public int turmas;
+        @Param({"3"})
+        public int avaliacoes;
+        @Param({"5"})
+        public int questoes;
+
+        Sistema sistema;
+        Entrada io;
+        String[] matriculas;
+        Turma maior;
+        Aluno[] alunosTurma;
+        Avaliacao[] avsTurma;
+        private PrintStream saida;
+
+        @Setup(Level.Trial)
+        public void criar() {
+            this.saida = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Entrada e Sistema imprimem mensagens
+            this.io = new Entrada();
+            this.sistema = new CenarioBenchmark(alunos, turmas, avaliacoes, questoes).criarSistema();
+
+            Random random = new Random(7);
+            this.matriculas = new String[BUSCAS_POR_OPERACAO];
+            for (int i = 0; i < matriculas.length; i++) {
+                matriculas[i] = CenarioBenchmark.matricula(random.nextInt(alunos));
+            }
+            this.maior = sistema.getTurmasResidentes().get(0);
+            this.alunosTurma = maior.getAlunos().toArray(new Aluno[0]);
+            this.avsTurma = maior.getAvs().toArray(new Avaliacao[0]);
+        }
+
+        @TearDown(Level.Trial)
+        public void restaurar() {
+            System.setOut(this.saida);
+        }
+    }
+
+    // Snapshot gravado uma vez no formato do parâmetro, mais um segundo arquivo para alternar as gravações
+    @State(Scope.Benchmark)
+    public static class Persistencia extends Cenario {
+        @Param({"TEXTO", "BINARIO", "COMPACTADO"})
+        public FormatoSnapshot formato;
+
+        File arquivo;
+        File outro;
+        int gravacoes;
+
+        @Setup(Level.Trial)
+        public void gravarInicial() throws IOException {
+            this.arquivo = File.createTempFile("bench-sistema", ".dat");
+            this.outro = File.createTempFile("bench-sistema", ".dat");
+            sistema.setFormatoSnapshot(formato);
+            sistema.salvarSistema(arquivo.getPath(), io);
+        }
+
+        @TearDown(Level.Trial)
+        public void apagar() {
+            apagarSnapshot(arquivo);
+            apagarSnapshot(outro);
+        }
+    }
+
+    // Snapshot texto já gravado: as gravações seguintes, sem alterações, copiam os segmentos
+    @State(Scope.Benchmark)
+    public static class Incremental extends Cenario {
+        File arquivo;
+
+        @Setup(Level.Trial)
+        public void gravarInicial() throws IOException {
+            this.arquivo = File.createTempFile("bench-sistema", ".txt");
+            sistema.setFormatoSnapshot(FormatoSnapshot.TEXTO);
+            sistema.salvarSistema(arquivo.getPath(), io);
+        }
+
+        @TearDown(Level.Trial)
+        public void apagar() {
+            apagarSnapshot(arquivo);
+        }
+    }
+
+    // Alternar entre dois arquivos impede o reaproveitamento de segmentos do snapshot anterior
+    @Benchmark
+    public long salvarSistemaCompleto(Persistencia p) throws IOException {
+        File destino = (p.gravacoes++ % 2 == 0) ? p.outro : p.arquivo;
+        p.sistema.salvarSistema(destino.getPath(), p.io);
+        return destino.length();
+    }
+
+    @Benchmark
+    public long salvarSistemaIncremental(Incremental p) throws IOException {
+        p.sistema.salvarSistema(p.arquivo.getPath(), p.io);
+        return p.arquivo.length();
+    }
+
+    @Benchmark
+    public int carregarSistema(Persistencia p) {
+        Sistema carregado = new Sistema();
+        carregado.carregarSistema(p.arquivo.getPath(), p.io);
+        return carregado.getTurmasResidentes().size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BUSCAS_POR_OPERACAO)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long encontrarAluno(Cenario c) {
+        long encontrados = 0;
+        for (String m : c.matriculas) {
+            if (c.sistema.encontrarAluno(m) != null) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    // Turma nova a cada chamada: as médias ainda não estão em cache
+    @Benchmark
+    public int turmaMediasBoletimFrio(Cenario c) {
+        Turma nova = new Turma(c.maior.getNome(), c.maior.getAno(), c.maior.getSemestre(), c.maior.getProf(),
+                c.alunosTurma, c.avsTurma);
+        nova.medias();
+        return nova.getAlunos().size();
+    }
+
+    @Benchmark
+    public int turmaGetMediasSemConsole(Cenario c) {
+        Turma nova = new Turma(c.maior.getNome(), c.maior.getAno(), c.maior.getSemestre(), c.maior.getProf(),
+                c.alunosTurma, c.avsTurma);
+        return nova.getMedias().getAlunos().size();
+    }
+
+    @Benchmark
+    public int turmaMediasBoletimEmCache(Cenario c) {
+        c.maior.medias();
+        return c.maior.getAlunos().size();
+    }
+
+    @Benchmark
+    public int listarTurmas(Cenario c) {
+        c.sistema.listarTurmas();
+        return c.sistema.getTurmasResidentes().size();
+    }
+
+    private static void apagarSnapshot(File arquivo) {
+        List<File> arquivos = new ArrayList<>(ArquivoMorto.arquivosSemestres(arquivo.getPath()));
+        arquivos.add(new File(Sistema.nomeDiario(arquivo.getPath())));
+        arquivos.add(new File(IndiceSnapshot.nomeIndice(arquivo.getPath())));
+        arquivos.add(arquivo);
+        for (File f : arquivos) {
+            f.delete();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Notas;
+
+/**
+ * Parâmetros de um cenário de benchmark e construção do Sistema sintético correspondente.
+ * Cada aluno é matriculado em uma turma (turmas com aproximadamente alunos/turmas alunos);
+ * as avaliações alternam entre Prova (com 'questoes' questões) e Trabalho (grupos de 4).
+ */
+public class CenarioBenchmark {
+    private final int alunos;
+    private final int turmas;
+    private final int avaliacoes;
+    private final int questoes;
+
+    public CenarioBenchmark(int alunos, int turmas, int avaliacoes, int questoes) {
+        if (alunos <= 0 || turmas <= 0 || avaliacoes < 0 || questoes <= 0) {
+            throw new IllegalArgumentException("Parâmetros de cenário inválidos: " + alunos + "/" + turmas + "/" + avaliacoes + "/" + questoes);
+        }
+        this.alunos = alunos;
+        this.turmas = turmas;
+        this.avaliacoes = avaliacoes;
+        this.questoes = questoes;
+    }
+
+    public int getAlunos() {
+        return alunos;
+    }
+
+    public int getTurmas() {
+        return turmas;
+    }
+
+    public int getAvaliacoes() {
+        return avaliacoes;
+    }
+
+    public int getQuestoes() {
+        return questoes;
+    }
+
+    public static String matricula(int i) {
+        return "M" + i;
+    }
+
+    /**
+     * Monta em memória um Sistema com os tamanhos do cenário (sem diário ativo).
+     * @return O sistema preenchido.
+     */
+    public Sistema criarSistema() {
+        Sistema s = new Sistema();
+        Professor[] profs = new Professor[Math.max(1, turmas / 5)];
+        for (int i = 0; i < profs.length; i++) {
+            profs[i] = new Professor("Professor " + i, "prof-" + i, 1000.0 + i);
+            s.novoProf(profs[i]);
+        }
+        Aluno[] todos = new Aluno[alunos];
+        for (int i = 0; i < alunos; i++) {
+            todos[i] = new Aluno("Aluno " + (i * 7919 % alunos), "cpf-" + i, matricula(i));
+            s.novoAluno(todos[i]);
+        }
+
+        int porTurma = (alunos + turmas - 1) / turmas;
+        for (int t = 0; t < turmas; t++) {
+            int inicio = (t * porTurma) % alunos;
+            int tamanho = Math.min(porTurma, alunos - inicio);
+            Aluno[] alunosTurma = new Aluno[tamanho];
+            System.arraycopy(todos, inicio, alunosTurma, 0, tamanho);
+
+            Avaliacao[] avs = new Avaliacao[avaliacoes];
+            for (int a = 0; a < avaliacoes; a++) {
+                Data data = new Data(1 + a % 28, 1 + a % 12, 2025);
+                if (a % 2 == 0) {
+                    avs[a] = criarProva("Prova " + (a / 2 + 1), data, alunosTurma, t + a);
+                } else {
+                    avs[a] = criarTrabalho("Trabalho " + (a / 2 + 1), data, alunosTurma, t + a);
+                }
+            }
+            s.novaTurma(new Turma("Turma " + t, 2020 + t % 6, 1 + t % 2, profs[t % profs.length], alunosTurma, avs));
+        }
+        return s;
+    }
+
+    private Prova criarProva(String nome, Data data, Aluno[] alunosTurma, int semente) {
+        Prova p = new Prova(nome, data, 30, questoes);
+        for (int i = 0; i < alunosTurma.length; i++) {
+            AlunoProva ap = new AlunoProva(alunosTurma[i], questoes);
+            for (int q = 0; q < questoes; q++) {
+                ap.adicionarNota(((i + q + semente) % 21) / 2.0 * 30.0 / (questoes * 10.0));
+            }
+            p.adicionarAlunoProva(ap);
+        }
+        return p;
+    }
+
+    private Trabalho criarTrabalho(String nome, Data data, Aluno[] alunosTurma, int semente) {
+        Trabalho trab = new Trabalho(nome, data, 40, 4);
+        for (int g = 0; g < alunosTurma.length; g += 4) {
+            GrupoTrabalho gt = new GrupoTrabalho();
+            for (int k = g; k < g + 4 && k < alunosTurma.length; k++) {
+                gt.adicionarAluno(alunosTurma[k]);
+            }
+            gt.setNota((g + semente) % 41);
+            trab.adicionarGrupo(gt);
+        }
+        return trab;
+    }
+
+    @Override
+    public String toString() {
+        return "alunos=" + alunos + " turmas=" + turmas + " avaliacoes=" + avaliacoes + " questoes=" + questoes;
+    }
+}
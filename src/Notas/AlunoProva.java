@@ -1,19 +1,31 @@
 package Notas;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class AlunoProva implements ICalculavel {
+    private static final int CAPACIDADE_PADRAO = 4;
+
     private Aluno aluno;
-    private List<Double> notas;
+    private double[] notas; // Notas por questão, sem boxing; cresce se necessário
+    private int qtdNotas;
+    private double total;   // Soma mantida por adicionarNota
+    private Prova prova;    // Prova que inclui este registro, avisada quando uma nota muda; null se nenhuma
 
     // Construtor da classe AlunoProva
     public AlunoProva(Aluno aluno) {
+        this(aluno, CAPACIDADE_PADRAO);
+    }
+
+    // Construtor que já reserva espaço para as notas de todas as questões (normalmente Prova.getNQuestoes())
+    public AlunoProva(Aluno aluno, int nQuestoes) {
         if (aluno == null) {
             throw new IllegalArgumentException("O aluno não pode ser nulo para criar um registro de prova.");
         }
         this.aluno = aluno;
-        this.notas = new ArrayList<>();
+        this.notas = new double[Math.max(nQuestoes, 1)];
     }
 
     // Adiciona uma nota ao aluno
@@ -21,16 +33,27 @@ public class AlunoProva implements ICalculavel {
         if (nota < 0) {
             throw new IllegalArgumentException("A nota não pode ser um valor negativo.");
         }
-        this.notas.add(nota);
+        if (this.qtdNotas == this.notas.length) {
+            this.notas = Arrays.copyOf(this.notas, this.notas.length * 2);
+        }
+        this.notas[this.qtdNotas++] = nota;
+        this.total += nota;
+        if (this.prova != null) {
+            this.prova.notaAlterada(this.aluno.getCpf());
+        }
+    }
+
+    // Chamado pela Prova que inclui este registro, antes de incluí-lo: um registro pertence a uma só prova
+    void registrarProva(Prova p) {
+        if (this.prova != null && this.prova != p) {
+            throw new IllegalArgumentException("As notas de " + this.aluno.getNome() + " já pertencem à prova " + this.prova.getNome() + ".");
+        }
+        this.prova = p;
     }
 
     // Método para calcular a nota total do aluno
     public double notaTotal() {
-        double soma = 0;
-        for (Double d : notas) {
-            soma += d;
-        }
-        return soma;
+        return total;
     }
 
     // Implementação do método da interface ICalculavel
@@ -44,8 +67,25 @@ public class AlunoProva implements ICalculavel {
         return aluno;
     }
 
-    //Getter para a lista de notas
+    //Getter para a lista de notas (cópia somente leitura; prefira getNota/getQtdNotas para evitar boxing)
     public List<Double> getNotas() {
-        return notas;
+        List<Double> lista = new ArrayList<>(qtdNotas);
+        for (int i = 0; i < qtdNotas; i++) {
+            lista.add(notas[i]);
+        }
+        return Collections.unmodifiableList(lista);
+    }
+
+    //Getter para a nota de uma questão (índice a partir de 0)
+    public double getNota(int questao) {
+        if (questao < 0 || questao >= qtdNotas) {
+            throw new IndexOutOfBoundsException("Questão " + questao + " inválida. Notas registradas: " + qtdNotas + ".");
+        }
+        return notas[questao];
+    }
+
+    //Getter para a quantidade de notas registradas
+    public int getQtdNotas() {
+        return qtdNotas;
     }
 }
\ No newline at end of file
@@ -0,0 +1,391 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Turmas de semestres encerrados, guardadas fora do snapshot principal (o "arquivo morto").
+ *
+ * Ao salvar, as turmas anteriores ao semestre atual e ao anterior a ele saem do snapshot e vão para
+ * um arquivo por semestre, ao lado dele e no mesmo formato texto (ex.: "dados.2023-1.txt" para
+ * "dados.txt"), com as mesmas somas de verificação. O semestre atual é o mais recente entre as turmas
+ * em memória e os semestres já arquivados.
+ *
+ * carregarSistema lê apenas o snapshot principal. Um semestre arquivado é lido na primeira consulta
+ * (Sistema.getTurmasSemestre, listarTurmasSemestre, ou novaTurma para conferir duplicatas) e fica em um
+ * cache LRU limitado por um orçamento de memória, estimado pelo tamanho dos arquivos. Semestres com
+ * alterações ainda não gravadas nunca são descartados do cache. As turmas de cada semestre ficam na
+ * ordem da listagem (TurmasOrdenadas.ORDEM), ordenadas uma vez ao ler ou arquivar o semestre.
+ *
+ * Acessado apenas sob o monitor do Sistema, exceto gravar(List), que só usa as cópias de prepararGravacao.
+ */
+public class ArquivoMorto {
+    public static final long ORCAMENTO_PADRAO = 64L << 20; // Bytes de arquivo mantidos em memória
+    private static final Pattern SUFIXO = Pattern.compile("\\.(\\d+)-([12])\\.txt$");
+
+    // Um semestre arquivado
+    private static class Semestre {
+        final int ano;
+        final int semestre;
+        List<Turma> turmas;          // Na ordem da listagem; null enquanto não estiver carregado
+        Map<Turma, Integer> versoes; // Versão de cada turma na última leitura ou gravação
+        int alteracoes;              // Incrementado a cada turma recebida (ou mudança de arquivo a gravar)
+        int alteracoesGravadas;      // Valor de 'alteracoes' copiado na última gravação concluída
+        boolean ilegivel;            // A leitura falhou: o arquivo nunca é sobrescrito
+        long tamanho;                // Estimativa do espaço ocupado em memória
+
+        Semestre(int ano, int semestre) {
+            this.ano = ano;
+            this.semestre = semestre;
+        }
+    }
+
+    private final Sistema sistema;
+    private String fileName; // Snapshot a que os arquivos de semestre pertencem (null antes de carregar ou salvar)
+    private Entrada io;
+    private final TreeMap<Integer, Semestre> semestres = new TreeMap<>();
+    private final LinkedHashMap<Integer, Semestre> carregados = new LinkedHashMap<>(16, 0.75f, true);
+    private long orcamento = ORCAMENTO_PADRAO;
+    private long ocupado;
+
+    /**
+     * Cópia de um semestre a gravar, feita sob o monitor do Sistema por prepararGravacao. A escrita
+     * (gravar) usa só a cópia e pode rodar fora do monitor; concluirGravacao registra o resultado.
+     */
+    public static final class Gravacao {
+        private final Semestre semestre;
+        private final String nome;
+        private final List<Turma> turmas;
+        private final Map<Turma, Integer> versoes;
+        private final int alteracoes;
+        private long tamanho;
+        private boolean gravada;
+
+        private Gravacao(Semestre semestre, String nome) {
+            this.semestre = semestre;
+            this.nome = nome;
+            this.turmas = new ArrayList<>(semestre.turmas);
+            this.versoes = versoes(semestre.turmas);
+            this.alteracoes = semestre.alteracoes;
+        }
+    }
+
+    public ArquivoMorto(Sistema sistema) {
+        this.sistema = sistema;
+    }
+
+    public void setOrcamento(long orcamento) {
+        if (orcamento < 0) {
+            throw new IllegalArgumentException("O orçamento de memória do arquivo morto não pode ser negativo.");
+        }
+        this.orcamento = orcamento;
+        ajustarOrcamento(null);
+    }
+
+    // Ordena os semestres: o seguinte a (ano, 2) é (ano + 1, 1)
+    private static int chave(int ano, int semestre) {
+        return ano * 2 + (semestre - 1);
+    }
+
+    /**
+     * @return O arquivo do semestre para o snapshot fileName (ex.: "dados.2023-1.txt").
+     */
+    public static String nomeSemestre(String fileName, int ano, int semestre) {
+        return Sistema.trocarExtensao(fileName, "." + ano + "-" + semestre + ".txt");
+    }
+
+    /**
+     * @return Os arquivos de semestre existentes para o snapshot fileName.
+     */
+    public static List<File> arquivosSemestres(String fileName) {
+        File base = new File(Sistema.trocarExtensao(fileName, ""));
+        Pattern padrao = Pattern.compile(Pattern.quote(base.getName()) + SUFIXO.pattern());
+        File diretorio = base.getAbsoluteFile().getParentFile();
+        File[] arquivos = (diretorio == null) ? null : diretorio.listFiles((dir, nome) -> padrao.matcher(nome).matches());
+        List<File> encontrados = new ArrayList<>();
+        if (arquivos != null) {
+            Collections.addAll(encontrados, arquivos);
+        }
+        return encontrados;
+    }
+
+    /**
+     * Esquece o estado atual e passa a usar os semestres arquivados ao lado de fileName.
+     * @param io A instância de Entrada usada nas leituras sob demanda.
+     */
+    public void abrir(String fileName, Entrada io) {
+        limpar();
+        this.fileName = fileName;
+        this.io = io;
+        for (File arquivo : arquivosSemestres(fileName)) {
+            Matcher m = SUFIXO.matcher(arquivo.getName());
+            if (!m.find()) {
+                continue;
+            }
+            GravacaoAtomica.descartarTemporario(arquivo.getPath());
+            Semestre s = new Semestre(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            s.tamanho = arquivo.length();
+            this.semestres.put(chave(s.ano, s.semestre), s);
+        }
+    }
+
+    public void limpar() {
+        this.semestres.clear();
+        this.carregados.clear();
+        this.ocupado = 0;
+        this.fileName = null;
+    }
+
+    public boolean isArquivado(int ano, int semestre) {
+        return this.semestres.containsKey(chave(ano, semestre));
+    }
+
+    // Semestres arquivados, do mais recente para o mais antigo, no formato "ano/semestre"
+    public List<String> getSemestres() {
+        List<String> nomes = new ArrayList<>();
+        for (Semestre s : this.semestres.descendingMap().values()) {
+            nomes.add(s.ano + "/" + s.semestre);
+        }
+        return nomes;
+    }
+
+    /**
+     * @return As turmas arquivadas do semestre (lidas do arquivo se ainda não estiverem em memória),
+     *         ou uma lista vazia se o semestre não estiver arquivado ou não puder ser lido.
+     */
+    public List<Turma> getTurmas(int ano, int semestre) {
+        Semestre s = this.semestres.get(chave(ano, semestre));
+        if (s == null || !carregar(s)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(s.turmas);
+    }
+
+    /**
+     * Acrescenta a 'destino' as turmas de todos os semestres arquivados, do mais recente para o mais
+     * antigo, lendo os que não estiverem em memória (os ilegíveis ficam de fora).
+     */
+    public void adicionarTodas(List<Turma> destino) {
+        for (Semestre s : this.semestres.descendingMap().values()) {
+            if (carregar(s)) {
+                destino.addAll(s.turmas);
+            }
+        }
+    }
+
+    /**
+     * Move para o arquivo morto as turmas de 'turmas' anteriores ao semestre atual e ao anterior.
+     * As turmas movidas são removidas de 'turmas'; as de semestres que não puderam ser lidos ficam nela.
+     */
+    public void arquivarAntigas(List<Turma> turmas) {
+        int atual = this.semestres.isEmpty() ? Integer.MIN_VALUE : this.semestres.lastKey();
+        for (Turma t : turmas) {
+            atual = Math.max(atual, chave(t.getAno(), t.getSemestre()));
+        }
+        List<Turma> mantidas = new ArrayList<>(turmas.size());
+        List<Semestre> recebidos = new ArrayList<>();
+        for (Turma t : turmas) {
+            int chave = chave(t.getAno(), t.getSemestre());
+            if (chave >= atual - 1) {
+                mantidas.add(t);
+                continue;
+            }
+            Semestre s = this.semestres.get(chave);
+            if (s == null) {
+                s = new Semestre(t.getAno(), t.getSemestre());
+                s.turmas = new ArrayList<>();
+                s.versoes = new IdentityHashMap<>();
+                this.semestres.put(chave, s);
+                this.carregados.put(chave, s);
+            } else if (!carregar(s)) {
+                mantidas.add(t);
+                continue;
+            }
+            s.turmas.add(t);
+            s.alteracoes++;
+            if (!recebidos.contains(s)) {
+                recebidos.add(s);
+            }
+        }
+        for (Semestre s : recebidos) {
+            s.turmas.sort(TurmasOrdenadas.ORDEM);
+        }
+        if (mantidas.size() != turmas.size()) {
+            turmas.clear();
+            turmas.addAll(mantidas);
+        }
+    }
+
+    /**
+     * Copia os semestres alterados, a gravar depois por gravar(). Se fileName não for o snapshot de onde
+     * os semestres vieram, todos são lidos e copiados para ficar ao lado dele, que passa a ser o snapshot
+     * do arquivo morto. Só lê do disco; a escrita fica para fora do monitor do Sistema.
+     */
+    public List<Gravacao> prepararGravacao(String fileName) {
+        if (this.fileName != null && !this.fileName.equals(fileName)) {
+            for (Semestre s : this.semestres.values()) {
+                if (carregar(s)) {
+                    s.alteracoes++;
+                } else {
+                    System.err.println("O semestre arquivado " + s.ano + "/" + s.semestre + " não será copiado para junto de '" + fileName + "'.");
+                }
+            }
+        }
+        this.fileName = fileName;
+        List<Gravacao> gravacoes = new ArrayList<>();
+        for (Semestre s : this.semestres.values()) {
+            if (s.turmas != null && !s.ilegivel && alterado(s)) {
+                gravacoes.add(new Gravacao(s, nomeSemestre(fileName, s.ano, s.semestre)));
+            }
+        }
+        return gravacoes;
+    }
+
+    /**
+     * Grava os arquivos dos semestres copiados por prepararGravacao. Não toca no estado do arquivo
+     * morto, então não precisa do monitor do Sistema (Sistema.gravarSnapshot segura só a trava de arquivos).
+     * @throws IOException se ocorrer erro de escrita (os arquivos anteriores continuam válidos; os
+     *         semestres já gravados ficam marcados em suas cópias).
+     */
+    public static void gravar(List<Gravacao> gravacoes) throws IOException {
+        for (Gravacao g : gravacoes) {
+            gravarSemestre(g);
+        }
+    }
+
+    /**
+     * Registra as gravações concluídas: um semestre só deixa de estar alterado se não recebeu turmas
+     * nem teve turmas alteradas desde a cópia. Chamado sob o monitor do Sistema.
+     */
+    public void concluirGravacao(List<Gravacao> gravacoes) {
+        for (Gravacao g : gravacoes) {
+            Semestre s = g.semestre;
+            int chave = chave(s.ano, s.semestre);
+            if (!g.gravada || this.semestres.get(chave) != s || s.turmas == null) {
+                continue; // Não gravado, ou o arquivo morto foi reaberto enquanto gravava
+            }
+            long tamanhoAnterior = this.carregados.containsKey(chave) ? s.tamanho : 0;
+            s.tamanho = g.tamanho;
+            s.versoes = g.versoes;
+            s.alteracoesGravadas = g.alteracoes;
+            this.carregados.put(chave, s);
+            this.ocupado += s.tamanho - tamanhoAnterior;
+        }
+        ajustarOrcamento(null);
+    }
+
+    private boolean alterado(Semestre s) {
+        if (s.alteracoes != s.alteracoesGravadas) {
+            return true;
+        }
+        for (Turma t : s.turmas) {
+            Integer versao = s.versoes.get(t);
+            if (versao == null || versao != t.getVersao()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lê o semestre do disco, se necessário. Retorna false se ele não puder ser lido.
+    private boolean carregar(Semestre s) {
+        if (s.turmas != null) {
+            this.carregados.get(chave(s.ano, s.semestre)); // Marca como usado recentemente
+            return true;
+        }
+        if (s.ilegivel) {
+            return false;
+        }
+        String nome = nomeSemestre(this.fileName, s.ano, s.semestre);
+        try {
+            VerificacaoSnapshot verificacao = VerificacaoSnapshot.verificarTexto(nome);
+            verificacao.relatar();
+            List<Turma> lidas = new ArrayList<>();
+            try (LeitorDados leitor = new LeitorDados(nome)) {
+                this.sistema.lerRegistros(leitor, this.io, null, lidas);
+                leitor.getRelatorio().relatar();
+            }
+            verificacao.conferirTotais(0, 0, lidas.size());
+            lidas.sort(TurmasOrdenadas.ORDEM); // Arquivos gravados antes de os semestres serem mantidos em ordem
+            s.turmas = lidas;
+            s.versoes = versoes(lidas);
+            s.tamanho = new File(nome).length();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Não foi possível carregar o semestre arquivado '" + nome + "': " + e.getMessage());
+            s.ilegivel = true;
+            return false;
+        }
+        this.carregados.put(chave(s.ano, s.semestre), s);
+        this.ocupado += s.tamanho;
+        ajustarOrcamento(s);
+        return true;
+    }
+
+    // Descarta os semestres usados há mais tempo até caber no orçamento (exceto 'manter' e os alterados)
+    private void ajustarOrcamento(Semestre manter) {
+        Iterator<Semestre> it = this.carregados.values().iterator();
+        while (this.ocupado > this.orcamento && it.hasNext()) {
+            Semestre s = it.next();
+            if (s == manter || alterado(s)) {
+                continue;
+            }
+            it.remove();
+            s.turmas = null;
+            s.versoes = null;
+            this.ocupado -= s.tamanho;
+        }
+    }
+
+    private static Map<Turma, Integer> versoes(List<Turma> turmas) {
+        Map<Turma, Integer> versoes = new IdentityHashMap<>();
+        for (Turma t : turmas) {
+            versoes.put(t, t.getVersao());
+        }
+        return versoes;
+    }
+
+    // Mesmo formato e somas de verificação do snapshot texto, só com a seção TUR
+    private static void gravarSemestre(Gravacao g) throws IOException {
+        String nome = g.nome;
+        File temporario = GravacaoAtomica.arquivoTemporario(nome);
+        CRC32 crcTotal = new CRC32();
+        CRC32 crcSecao = new CRC32();
+        try (FileOutputStream fos = new FileOutputStream(temporario)) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new CheckedOutputStream(new CheckedOutputStream(fos, crcTotal), crcSecao)));
+            for (Turma t : g.turmas) {
+                Sistema.escreverTurma(writer, t);
+            }
+            writer.flush();
+            writer.write(VerificacaoSnapshot.PREFIXO_SECAO + "TUR " + g.turmas.size() + " " + VerificacaoSnapshot.hex(crcSecao.getValue()));
+            writer.newLine();
+            writer.write("FIM"); writer.newLine();
+            writer.flush();
+            writer.write(VerificacaoSnapshot.PREFIXO_TOTAL + "0 0 " + g.turmas.size() + " " + VerificacaoSnapshot.hex(crcTotal.getValue()));
+            writer.newLine();
+            writer.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            temporario.delete();
+            throw e;
+        }
+        GravacaoAtomica.substituir(temporario, nome);
+        g.tamanho = new File(nome).length();
+        g.gravada = true;
+    }
+}
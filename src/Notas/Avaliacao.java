@@ -1,9 +1,13 @@
 package Notas;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class Avaliacao { // Torna a classe abstrata
     protected String nome;
     protected Data dtAplicacao;
     protected double valor;
+    private final List<Turma> turmas = new ArrayList<>(1); // Avisadas quando a nota de um aluno muda
 
     // Construtor da classe Avaliacao
     public Avaliacao(String nome, Data dtAplicacao, double valor) {
@@ -26,6 +30,20 @@ public abstract class Avaliacao { // Torna a classe abstrata
         this.valor = valor;
     }
 
+    // Chamado pela Turma quando ela é aceita (Turma.vincularAvaliacoes) ou, já aceita, passa a usar esta avaliação
+    void registrarTurma(Turma t) {
+        if (!this.turmas.contains(t)) {
+            this.turmas.add(t);
+        }
+    }
+
+    // As subclasses (e AlunoProva e GrupoTrabalho) avisam aqui cada nota incluída ou alterada depois que a avaliação já está em uma turma
+    protected void notaAlterada(String cpf) {
+        for (Turma t : this.turmas) {
+            t.notaAlterada(cpf);
+        }
+    }
+
     // Método que será sobrescrito nas subclasses. Agora é abstrato e não tem implementação.
     public abstract double nota(String cpf); // Torna o método abstrato
 
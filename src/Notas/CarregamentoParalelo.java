@@ -0,0 +1,192 @@
+package Notas;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Carregamento de um snapshot texto com os blocos TUR interpretados em paralelo.
+ *
+ * Com o índice (IndiceSnapshot) de um snapshot íntegro, as seções PROF e ALU são lidas primeiro, na
+ * thread chamadora. Depois cada bloco TUR é interpretado por uma tarefa do ForkJoinPool comum, que
+ * consulta os índices de CPF e matrícula do Sistema apenas para leitura (nada é cadastrado enquanto as
+ * tarefas rodam), e as turmas são cadastradas com novaTurma na ordem do arquivo.
+ *
+ * As tarefas usam uma leitura estrita, que não imprime nada e desiste na primeira irregularidade.
+ * Se algum bloco falhar, a seção TUR inteira é relida pelo caminho sequencial (lerRegistros), que
+ * produz as mesmas mensagens, na mesma ordem, de um carregamento sem índice.
+ *
+ * Como no caminho sequencial, as notas das provas e os grupos dos trabalhos não são interpretados:
+ * as tarefas só registram onde eles estão (Sistema.adiarNotasProva e adiarGruposTrabalho).
+ */
+public class CarregamentoParalelo {
+    // Abaixo disso o custo de criar as tarefas supera o ganho
+    public static final int MIN_TURMAS = 16;
+
+    // Resultado da leitura de um bloco TUR
+    private static class BlocoLido {
+        final Turma turma;
+        final int linhas;
+
+        BlocoLido(Turma turma, int linhas) {
+            this.turma = turma;
+            this.linhas = linhas;
+        }
+    }
+
+    /**
+     * @return true se vale a pena carregar em paralelo: há turmas suficientes e mais de um processador.
+     */
+    static boolean compensa(IndiceSnapshot indice) {
+        return indice.getQtdTurmas() >= MIN_TURMAS && Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Carrega fileName no sistema (já resetado) usando o índice.
+     * @param fonte De onde as notas adiadas serão lidas (o snapshot, aberto por carregarSistema).
+     * @param relatorio Onde os problemas e os tempos de cada etapa são registrados.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    static void carregar(Sistema s, String fileName, IndiceSnapshot indice, Entrada io, FonteCarregamento fonte,
+                         RelatorioCarregamento relatorio) throws IOException {
+        List<BlocoLido> lidos = new ArrayList<>(indice.getQtdTurmas());
+        int linhasAnteriores;
+        boolean falhou = false;
+
+        try (FileChannel canal = FileChannel.open(Paths.get(fileName))) {
+            byte[] pessoas = lerTrecho(canal, 0, indice.getInicioTurmas());
+            LeitorDados leitorPessoas = new LeitorDados(pessoas, 0, pessoas.length, fileName, 0, 0);
+            leitorPessoas.setRelatorio(relatorio);
+            s.lerRegistros(leitorPessoas, io, fonte);
+            linhasAnteriores = leitorPessoas.getNumeroLinha();
+
+            List<Future<BlocoLido>> tarefas = new ArrayList<>(indice.getQtdTurmas());
+            for (int i = 0; i < indice.getQtdTurmas(); i++) {
+                long posicao = indice.getPosicao(i);
+                long tamanho = indice.getTamanho(i);
+                tarefas.add(ForkJoinPool.commonPool().submit(() -> lerTurma(s, lerTrecho(canal, posicao, tamanho), posicao, fileName, fonte, io, relatorio)));
+            }
+            // Espera todas as tarefas (mesmo após uma falha) antes de fechar o canal
+            for (Future<BlocoLido> tarefa : tarefas) {
+                try {
+                    lidos.add(tarefa.get());
+                } catch (ExecutionException e) {
+                    falhou = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    falhou = true;
+                }
+            }
+        }
+
+        long continuarEm;
+        if (falhou) {
+            continuarEm = indice.getInicioTurmas();
+        } else {
+            for (BlocoLido bloco : lidos) {
+                try {
+                    s.novaTurma(bloco.turma);
+                } catch (IllegalArgumentException e) {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.CADASTRO_RECUSADO, 0,
+                            () -> "Erro ao carregar turma do arquivo: " + e.getMessage());
+                }
+                linhasAnteriores += bloco.linhas;
+            }
+            continuarEm = indice.getFimTurmas();
+        }
+
+        // O restante do arquivo (ou a seção TUR inteira, se algum bloco falhou) segue pelo caminho sequencial
+        try (FileInputStream resto = new FileInputStream(fileName)) {
+            resto.getChannel().position(continuarEm);
+            LeitorDados leitorResto = new LeitorDados(resto, fileName, linhasAnteriores, continuarEm);
+            leitorResto.setRelatorio(relatorio);
+            s.lerRegistros(leitorResto, io, fonte);
+        }
+    }
+
+    private static byte[] lerTrecho(FileChannel canal, long posicao, long tamanho) throws IOException {
+        if (tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Trecho do snapshot grande demais para o carregamento paralelo.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamanho);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicao + buffer.position()) < 0) {
+                throw new IOException("O snapshot terminou antes do fim do bloco indicado no índice.");
+            }
+        }
+        return buffer.array();
+    }
+
+    // *******************************************************
+    // ************* LEITURA ESTRITA DE UM BLOCO TUR *********
+    // *******************************************************
+
+    // Mesmo formato lido por Sistema.lerRegistros, mas sem mensagens: qualquer irregularidade lança exceção
+    private static BlocoLido lerTurma(Sistema s, byte[] bloco, long posicao, String fileName, FonteCarregamento fonte,
+                                      Entrada io, RelatorioCarregamento relatorio) {
+        long inicio = System.nanoTime();
+        LeitorDados leitor = new LeitorDados(bloco, 0, bloco.length, fileName, 0, posicao);
+        leitor.setRelatorio(relatorio); // Só para os tempos: a leitura estrita não registra problemas
+        if (!"TUR".equalsIgnoreCase(leitor.lerLinha())) {
+            throw new IllegalArgumentException("O bloco indicado no índice não começa com TUR.");
+        }
+        String nomeTurma = exigir(leitor.lerLinha());
+        int ano = exigir(leitor.lerInteiro());
+        int semestre = exigir(leitor.lerInteiro());
+        Professor profTurma = exigir(s.encontrarProfessor(leitor.lerLinha()));
+
+        int numAlunos = exigir(leitor.lerInteiro());
+        List<Aluno> alunosTurma = new ArrayList<>();
+        for (int i = 0; i < numAlunos; i++) {
+            alunosTurma.add(exigir(s.encontrarAluno(leitor.lerLinha())));
+        }
+
+        int numAvs = exigir(leitor.lerInteiro());
+        List<Avaliacao> avaliacoesTurma = new ArrayList<>();
+        for (int i = 0; i < numAvs; i++) {
+            String tipoAval = exigir(leitor.lerLinha());
+            String nomeAval = exigir(leitor.lerLinha());
+            int dia = exigir(leitor.lerInteiro());
+            int mes = exigir(leitor.lerInteiro());
+            int anoAval = exigir(leitor.lerInteiro());
+            double valor = exigir(leitor.lerDouble());
+            Data dataAval = new Data(dia, mes, anoAval);
+
+            if (tipoAval.equalsIgnoreCase("PROV")) {
+                int nQuestoes = exigir(leitor.lerInteiro());
+                Prova prova = new Prova(nomeAval, dataAval, valor, nQuestoes);
+                s.adiarNotasProva(prova, leitor, fonte, alunosTurma, io);
+                avaliacoesTurma.add(prova);
+            } else if (tipoAval.equalsIgnoreCase("TRAB")) {
+                int nIntegrantes = exigir(leitor.lerInteiro());
+                int nGrupos = exigir(leitor.lerInteiro());
+                Trabalho trabalho = new Trabalho(nomeAval, dataAval, valor, nIntegrantes);
+                s.adiarGruposTrabalho(trabalho, leitor, fonte, nGrupos, io);
+                avaliacoesTurma.add(trabalho);
+            } else {
+                throw new IllegalArgumentException("Tipo de avaliação desconhecido: '" + tipoAval + "'.");
+            }
+        }
+
+        if (leitor.lerLinha() != null) {
+            throw new IllegalArgumentException("Dados além do fim do bloco TUR.");
+        }
+        Turma t = new Turma(nomeTurma, ano, semestre, profTurma, alunosTurma.toArray(new Aluno[0]), avaliacoesTurma.toArray(new Avaliacao[0]));
+        relatorio.registrarTempo(RelatorioCarregamento.Etapa.TURMAS, System.nanoTime() - inicio);
+        return new BlocoLido(t, leitor.getNumeroLinha());
+    }
+
+    private static <T> T exigir(T valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Bloco TUR incompleto.");
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,187 @@
+package Notas;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura de uma única turma de um snapshot texto, sem carregar o sistema inteiro.
+ *
+ * O snapshot é mapeado em memória e a turma é localizada pelo índice (IndiceSnapshot), que guarda
+ * a posição do bloco TUR de cada (nome, ano, semestre) e a de cada registro PROF e ALU. Só o bloco
+ * da turma é interpretado; o professor e os alunos a que ele se refere são lidos dos seus registros
+ * conforme aparecem, também pelo índice. A interpretação é a mesma de carregarSistema
+ * (Sistema.lerRegistros), com as notas lidas de imediato.
+ *
+ * A consulta vê o snapshot como foi gravado: cadastros ainda só no diário (dados.journal) e turmas
+ * de semestres encerrados (ArquivoMorto) não aparecem. Uma mesma consulta pode ser usada por várias
+ * threads; cada turma lida é independente das demais.
+ */
+public class ConsultaTurma implements Closeable {
+    private final String fileName;
+    private final Entrada io;
+    private final FileChannel canal;
+    private final MappedByteBuffer buffer;
+    private final IndiceSnapshot indice;
+
+    private ConsultaTurma(String fileName, Entrada io, FileChannel canal, MappedByteBuffer buffer, IndiceSnapshot indice) {
+        this.fileName = fileName;
+        this.io = io;
+        this.canal = canal;
+        this.buffer = buffer;
+        this.indice = indice;
+    }
+
+    /**
+     * Mapeia o snapshot e lê o seu índice.
+     * @param fileName O snapshot texto (ex.: "dados.txt").
+     * @param io A instância de Entrada para usar os métodos de leitura de arquivo.
+     * @return A consulta aberta; deve ser fechada com close.
+     * @throws IOException se o arquivo não puder ser lido, não tiver trailer, ou se o índice estiver
+     *                     ausente ou não corresponder a ele (basta salvar o sistema para refazê-lo).
+     */
+    public static ConsultaTurma abrir(String fileName, Entrada io) throws IOException {
+        FileChannel canal = FileChannel.open(Paths.get(fileName));
+        try {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot maior que 2 GB não é suportado: '" + fileName + "'.");
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            IndiceSnapshot indice = IndiceSnapshot.ler(fileName, canal.size(), crcTrailer(buffer, fileName), true);
+            if (indice == null || indice.getProfs() == null) {
+                throw new IOException("Índice de '" + fileName + "' ausente ou desatualizado.");
+            }
+            return new ConsultaTurma(fileName, io, canal, buffer, indice);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    // O CRC da última linha ("# TOTAL ..."), que identifica o snapshot no índice
+    private static long crcTrailer(MappedByteBuffer buffer, String fileName) throws IOException {
+        int fim = buffer.limit();
+        while (fim > 0 && (buffer.get(fim - 1) == '\n' || buffer.get(fim - 1) == '\r')) {
+            fim--;
+        }
+        int inicio = fim;
+        while (inicio > 0 && buffer.get(inicio - 1) != '\n') {
+            inicio--;
+        }
+        String ultima = new String(copiar(buffer, inicio, fim - inicio), StandardCharsets.US_ASCII).trim();
+        if (!ultima.startsWith(VerificacaoSnapshot.PREFIXO_TOTAL)) {
+            throw new IOException("Snapshot sem trailer de totais: '" + fileName + "'.");
+        }
+        String[] partes = ultima.substring(VerificacaoSnapshot.PREFIXO_TOTAL.length()).split(" ");
+        try {
+            return Long.parseLong(partes[3], 16);
+        } catch (RuntimeException e) {
+            throw new IOException("Trailer de totais inválido: '" + ultima + "'.");
+        }
+    }
+
+    private static byte[] copiar(MappedByteBuffer buffer, long posicao, long tamanho) {
+        if (posicao < 0 || tamanho < 0 || posicao + tamanho > buffer.limit()) {
+            throw new IllegalArgumentException("Trecho fora do snapshot: o índice não corresponde ao arquivo.");
+        }
+        byte[] trecho = new byte[(int) tamanho];
+        ByteBuffer leitura = buffer.duplicate(); // Posição própria: permite leituras simultâneas
+        leitura.position((int) posicao);
+        leitura.get(trecho);
+        return trecho;
+    }
+
+    /**
+     * @return As chaves (IndiceSnapshot.chaveTurma) de todas as turmas do snapshot, na ordem do arquivo.
+     */
+    public List<String> getChavesTurmas() {
+        IndiceSnapshot.Secao turmas = indice.getTurmas();
+        List<String> chaves = new ArrayList<>(turmas.getQuantidade());
+        for (int i = 0; i < turmas.getQuantidade(); i++) {
+            chaves.add(turmas.getChave(i));
+        }
+        return chaves;
+    }
+
+    /**
+     * Lê uma turma do snapshot, com seu professor, seus alunos e todas as notas.
+     * Problemas nos dados são resumidos em System.err, como em carregarSistema (RelatorioCarregamento).
+     * @param nome Nome da turma (sem diferenciar maiúsculas).
+     * @return A turma, ou null se ela não estiver no snapshot ou não puder ser lida.
+     */
+    public Turma lerTurma(String nome, int ano, int semestre) {
+        int registro = indice.getTurmas().buscar(IndiceSnapshot.chaveTurma(nome, ano, semestre));
+        if (registro < 0) {
+            return null;
+        }
+        List<Turma> lidas = new ArrayList<>(1);
+        RelatorioCarregamento relatorio = new RelatorioCarregamento(fileName);
+        new SistemaParcial(relatorio).lerRegistros(leitor(indice.getTurmas(), registro, relatorio), io, null, lidas);
+        relatorio.relatar();
+        return lidas.isEmpty() ? null : lidas.get(0);
+    }
+
+    private LeitorDados leitor(IndiceSnapshot.Secao secao, int registro, RelatorioCarregamento relatorio) {
+        long posicao = secao.getPosicao(registro);
+        byte[] trecho = copiar(buffer, posicao, secao.getTamanho(registro));
+        LeitorDados leitor = new LeitorDados(trecho, 0, trecho.length, fileName, 0, posicao);
+        leitor.setRelatorio(relatorio);
+        return leitor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    // Sistema que lê do snapshot, pelo índice, cada professor ou aluno procurado e ainda não cadastrado
+    private class SistemaParcial extends Sistema {
+        private final RelatorioCarregamento relatorio;
+        private boolean lendoRegistro; // novoProf/novoAluno procuram a pessoa antes de cadastrá-la
+
+        SistemaParcial(RelatorioCarregamento relatorio) {
+            this.relatorio = relatorio;
+        }
+
+        @Override
+        public Professor encontrarProfessor(String cpf) {
+            Professor p = super.encontrarProfessor(cpf);
+            if (p == null && lerPessoa(indice.getProfs(), cpf)) {
+                p = super.encontrarProfessor(cpf);
+            }
+            return p;
+        }
+
+        @Override
+        public Aluno encontrarAluno(String matricula) {
+            Aluno a = super.encontrarAluno(matricula);
+            if (a == null && lerPessoa(indice.getAlunos(), matricula)) {
+                a = super.encontrarAluno(matricula);
+            }
+            return a;
+        }
+
+        private boolean lerPessoa(IndiceSnapshot.Secao secao, String chave) {
+            if (lendoRegistro || chave == null) {
+                return false;
+            }
+            int registro = secao.buscar(chave);
+            if (registro < 0) {
+                return false;
+            }
+            lendoRegistro = true;
+            try {
+                lerRegistros(leitor(secao, registro, relatorio), io);
+            } finally {
+                lendoRegistro = false;
+            }
+            return true;
+        }
+    }
+}
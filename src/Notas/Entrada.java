@@ -171,6 +171,46 @@ public class Entrada {
         }
     }
 
+    /**
+     * Faz a leitura de uma linha de um LeitorDados (versão sem Scanner usada pelo carregamento de dados.txt).
+     * Ignora linhas em branco ou que começam com '#'.
+     * @param leitor O LeitorDados a ser utilizado para leitura.
+     * @return Uma String contendo a linha lida, ou null se o fim do arquivo for atingido.
+     */
+    public String lerLinhaArquivo(LeitorDados leitor) {
+        return leitor.lerLinha();
+    }
+
+    /**
+     * Faz a leitura de um inteiro de um LeitorDados, convertendo direto dos bytes.
+     * @param leitor O LeitorDados a ser utilizado para leitura.
+     * @return O número inteiro lido, ou null se o fim do arquivo for atingido ou formato inválido
+     *         (registrado no relatório do leitor).
+     */
+    public Integer lerInteiroArquivo(LeitorDados leitor) {
+        try {
+            return leitor.lerInteiro();
+        } catch (NumberFormatException e) {
+            leitor.getRelatorio().registrar(RelatorioCarregamento.Categoria.NUMERO_INVALIDO, leitor.getNumeroLinha(), e::getMessage);
+            return null;
+        }
+    }
+
+    /**
+     * Faz a leitura de um double de um LeitorDados, convertendo direto dos bytes.
+     * @param leitor O LeitorDados a ser utilizado para leitura.
+     * @return O número double lido, ou null se o fim do arquivo for atingido ou formato inválido
+     *         (registrado no relatório do leitor).
+     */
+    public Double lerDoubleArquivo(LeitorDados leitor) {
+        try {
+            return leitor.lerDouble();
+        } catch (NumberFormatException e) {
+            leitor.getRelatorio().registrar(RelatorioCarregamento.Categoria.NUMERO_INVALIDO, leitor.getNumeroLinha(), e::getMessage);
+            return null;
+        }
+    }
+
     // *******************************************************
     // ************* MÉTODO menu() - Revertido para numérico *************
     // *******************************************************
@@ -187,6 +227,7 @@ public class Entrada {
                 "2) Cadastrar aluno:\n" +
                 "3) Cadastrar turma:\n" +
                 "4) Listar turmas:\n" +
+                "5) Listar turmas de um semestre:\n" +
                 "0) Sair\n" +
                 "Opção: "; // Adicionado "Opção: " para prompt claro
 
@@ -201,7 +242,7 @@ public class Entrada {
             return -1; // Retorna -1 para tentar novamente no loop do Main
         }
 
-        while (op < 0 || op > 4) {
+        while (op < 0 || op > 5) {
             System.out.println("Opção inválida. Tente novamente: ");
             op = this.lerInteiro(msg);
         }
@@ -351,6 +392,23 @@ public class Entrada {
         }
     }
 
+    // Lê um ano e um semestre e lista as turmas dele, inclusive as de um semestre arquivado
+    public void listarSemestre(Sistema s) {
+        try {
+            int ano = this.lerInteiro("Digite o ano: ");
+            int semestre = this.lerInteiro("Digite o semestre (1 ou 2): ");
+            if (ano <= 0 || (semestre != 1 && semestre != 2)) {
+                System.out.println("Semestre inválido: o ano deve ser positivo e o semestre, 1 ou 2.");
+                return;
+            }
+            s.listarTurmasSemestre(ano, semestre);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro ao ler o semestre de 'input.txt': " + e.getMessage());
+        } catch (IllegalStateException e) {
+            System.err.println("Fim de 'input.txt' inesperado ao ler o semestre: " + e.getMessage());
+        }
+    }
+
     // *******************************************************
     // ************ MÉTODOS AUXILIARES DE LEITURA (ajustes para exceções de input.txt) ************
     // *******************************************************
@@ -431,7 +489,7 @@ public class Entrada {
     public AlunoProva lerAlunoProva(Sistema s, Aluno a, int nQuestoes) {
         AlunoProva ap = null;
         try {
-            ap = new AlunoProva(a);
+            ap = new AlunoProva(a, nQuestoes);
             if (this.isSystemIn) System.out.println("Notas de " + a.getNome() + ":");
             for (int i = 0; i < nQuestoes; i++) {
                 double nota;
@@ -0,0 +1,70 @@
+package Notas;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+
+/**
+ * Snapshot texto mantido aberto depois do carregamento, para as notas de provas e os grupos de
+ * trabalhos lidos sob demanda (Prova.adiarCarga e Trabalho.adiarCarga).
+ *
+ * carregarSistema guarda só a posição de cada trecho de notas e o pula; o trecho é relido daqui no
+ * primeiro acesso. O canal continua apontando para o arquivo lido mesmo depois que salvarSistema
+ * renomeia um novo snapshot sobre ele, então as posições guardadas continuam válidas até o próximo
+ * resetSistema, que fecha a fonte.
+ */
+public class FonteCarregamento implements Closeable {
+    private static final int TAMANHO_BUFFER = 4096; // Os trechos de notas costumam ser curtos
+    private final String fileName;
+    private final FileChannel canal;
+
+    public FonteCarregamento(String fileName) throws IOException {
+        this.fileName = fileName;
+        this.canal = FileChannel.open(Paths.get(fileName));
+    }
+
+    /**
+     * Abre um leitor a partir de uma posição do arquivo. Leitores diferentes podem ser usados ao
+     * mesmo tempo, pois cada um lê com a sua própria posição.
+     * @param posicao Posição (em bytes) do início do trecho.
+     * @param linhasAnteriores Número da linha anterior à posição (para as mensagens de erro).
+     * @return O leitor; erros de leitura (ex.: fonte já fechada) surgem como UncheckedIOException.
+     */
+    public LeitorDados abrir(long posicao, int linhasAnteriores) {
+        return new LeitorDados(new TrechoCanal(canal, posicao), fileName, linhasAnteriores, posicao, TAMANHO_BUFFER);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    // Leitura sequencial a partir de uma posição, sem alterar a posição compartilhada do canal
+    private static class TrechoCanal extends InputStream {
+        private final FileChannel canal;
+        private long posicao;
+
+        TrechoCanal(FileChannel canal, long posicao) {
+            this.canal = canal;
+            this.posicao = posicao;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : (um[0] & 0xFF);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = canal.read(ByteBuffer.wrap(b, off, len), posicao);
+            if (lidos > 0) {
+                posicao += lidos;
+            }
+            return lidos;
+        }
+    }
+}
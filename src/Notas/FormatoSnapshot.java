@@ -0,0 +1,8 @@
+package Notas;
+
+// Formatos em que salvarSistema pode gravar o snapshot. carregarSistema identifica o formato pelo cabeçalho do arquivo.
+public enum FormatoSnapshot {
+    TEXTO,      // Formato original de dados.txt (PROF/ALU/TUR ... FIM), uma informação por linha
+    BINARIO,    // SnapshotBinario: registros com prefixo de tamanho, tabela de strings, alunos referenciados por ID e notas como doubles crus
+    COMPACTADO  // SnapshotCompactado: o formato TEXTO compactado em GZIP, gravado e lido em fluxo
+}
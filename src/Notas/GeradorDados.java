@@ -0,0 +1,315 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gerador de massas de dados sintéticas para testes de desempenho.
+ * Produz um dados.txt (gravado por Sistema.salvarSistema, portanto válido para carregarSistema)
+ * e um input.txt com a sequência de opções do menu que cadastra exatamente os mesmos dados via Entrada.
+ * A mesma semente sempre gera os mesmos arquivos.
+ *
+ * Uso: java -cp <classes> Notas.GeradorDados [--profs 10] [--alunos 1000] [--semestres 2]
+ *      [--turmas-por-semestre 5] [--alunos-por-turma 40] [--provas 2] [--questoes 5]
+ *      [--trabalhos 1] [--tamanho-grupo 4] [--semente 42] [--dados dados.txt] [--input input.txt]
+ */
+public class GeradorDados {
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Daniel", "Enzo", "Fernanda", "Gabriel", "Helena",
+            "Igor", "Julia", "Lucas", "Mariana", "Nicolas", "Olivia", "Pedro", "Rafaela", "Samuel", "Tatiana", "Vitor", "Yasmin"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira", "Costa",
+            "Rodrigues", "Almeida", "Nascimento", "Carvalho", "Gomes", "Martins", "Rocha", "Ribeiro", "Barbosa"};
+    private static final String[] DISCIPLINAS = {"Programação", "Estrutura de Dados", "Banco de Dados", "Redes",
+            "Sistemas Operacionais", "Engenharia de Software", "Cálculo", "Álgebra Linear", "Compiladores", "Inteligência Artificial"};
+    private static final double VALOR_PROVA = 30;
+    private static final double VALOR_TRABALHO = 40;
+    private static final int ANO_INICIAL = 2025;
+    private static final String USO = "Uso: java -cp <classes> Notas.GeradorDados [--profs 10] [--alunos 1000] [--semestres 2]"
+            + " [--turmas-por-semestre 5] [--alunos-por-turma 40] [--provas 2] [--questoes 5]"
+            + " [--trabalhos 1] [--tamanho-grupo 4] [--semente 42] [--dados dados.txt] [--input input.txt]";
+
+    private int profs = 10;
+    private int alunos = 1000;
+    private int semestres = 2;
+    private int turmasPorSemestre = 5;
+    private int alunosPorTurma = 40;
+    private int provas = 2;
+    private int questoes = 5;
+    private int trabalhos = 1;
+    private int tamanhoGrupo = 4;
+    private long semente = 42;
+
+    public static void main(String[] args) throws IOException {
+        GeradorDados gerador = new GeradorDados();
+        String arquivoDados = "dados.txt";
+        String arquivoInput = "input.txt";
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) { // Opção sem valor: não é ignorada em silêncio
+                throw new IllegalArgumentException("A opção " + args[i] + " exige um valor. " + USO);
+            }
+            String valor = args[i + 1];
+            switch (args[i]) {
+                case "--profs": gerador.setProfs(Integer.parseInt(valor)); break;
+                case "--alunos": gerador.setAlunos(Integer.parseInt(valor)); break;
+                case "--semestres": gerador.setSemestres(Integer.parseInt(valor)); break;
+                case "--turmas-por-semestre": gerador.setTurmasPorSemestre(Integer.parseInt(valor)); break;
+                case "--alunos-por-turma": gerador.setAlunosPorTurma(Integer.parseInt(valor)); break;
+                case "--provas": gerador.setProvas(Integer.parseInt(valor)); break;
+                case "--questoes": gerador.setQuestoes(Integer.parseInt(valor)); break;
+                case "--trabalhos": gerador.setTrabalhos(Integer.parseInt(valor)); break;
+                case "--tamanho-grupo": gerador.setTamanhoGrupo(Integer.parseInt(valor)); break;
+                case "--semente": gerador.setSemente(Long.parseLong(valor)); break;
+                case "--dados": arquivoDados = valor; break;
+                case "--input": arquivoInput = valor; break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + args[i] + ". " + USO);
+            }
+        }
+
+        Sistema s = gerador.gerarSistema();
+        // O input.txt vem antes de salvar, que move as turmas de semestres encerrados para o arquivo morto
+        // (getTurmas continua completa, mas passa a listar as arquivadas por último)
+        gerador.escreverInput(s, arquivoInput);
+        int turmas = s.getTurmas().size();
+        s.salvarSistema(arquivoDados, null);
+        System.out.println("Gerados " + s.getProfs().size() + " professores, " + s.getAlunos().size() + " alunos e "
+                + turmas + " turmas em '" + arquivoDados + "' e '" + arquivoInput + "'.");
+    }
+
+    // *******************************************************
+    // ******************* CONFIGURAÇÃO **********************
+    // *******************************************************
+
+    public void setProfs(int profs) {
+        if (profs <= 0) {
+            throw new IllegalArgumentException("É necessário pelo menos um professor.");
+        }
+        this.profs = profs;
+    }
+
+    public void setAlunos(int alunos) {
+        if (alunos <= 0) {
+            throw new IllegalArgumentException("É necessário pelo menos um aluno.");
+        }
+        this.alunos = alunos;
+    }
+
+    public void setSemestres(int semestres) {
+        if (semestres < 0) {
+            throw new IllegalArgumentException("O número de semestres não pode ser negativo.");
+        }
+        this.semestres = semestres;
+    }
+
+    public void setTurmasPorSemestre(int turmasPorSemestre) {
+        if (turmasPorSemestre < 0) {
+            throw new IllegalArgumentException("O número de turmas por semestre não pode ser negativo.");
+        }
+        this.turmasPorSemestre = turmasPorSemestre;
+    }
+
+    public void setAlunosPorTurma(int alunosPorTurma) {
+        if (alunosPorTurma <= 0) {
+            throw new IllegalArgumentException("Cada turma precisa de pelo menos um aluno.");
+        }
+        this.alunosPorTurma = alunosPorTurma;
+    }
+
+    public void setProvas(int provas) {
+        if (provas < 0) {
+            throw new IllegalArgumentException("O número de provas não pode ser negativo.");
+        }
+        this.provas = provas;
+    }
+
+    public void setQuestoes(int questoes) {
+        if (questoes <= 0) {
+            throw new IllegalArgumentException("O número de questões deve ser maior que zero.");
+        }
+        this.questoes = questoes;
+    }
+
+    public void setTrabalhos(int trabalhos) {
+        if (trabalhos < 0) {
+            throw new IllegalArgumentException("O número de trabalhos não pode ser negativo.");
+        }
+        this.trabalhos = trabalhos;
+    }
+
+    public void setTamanhoGrupo(int tamanhoGrupo) {
+        if (tamanhoGrupo <= 0) {
+            throw new IllegalArgumentException("O tamanho do grupo deve ser maior que zero.");
+        }
+        this.tamanhoGrupo = tamanhoGrupo;
+    }
+
+    public void setSemente(long semente) {
+        this.semente = semente;
+    }
+
+    // *******************************************************
+    // ********************** GERAÇÃO ************************
+    // *******************************************************
+
+    /**
+     * Monta em memória um Sistema com os tamanhos configurados.
+     * As turmas vão do semestre ANO_INICIAL/1 para trás, 'turmasPorSemestre' em cada semestre.
+     * @return O sistema gerado (sem diário ativo).
+     */
+    public Sistema gerarSistema() {
+        Random random = new Random(semente);
+        Sistema s = new Sistema();
+
+        Professor[] professores = new Professor[profs];
+        for (int i = 0; i < profs; i++) {
+            professores[i] = new Professor("Prof. " + nomeAleatorio(random), cpf(i), 3000 + random.nextInt(120) * 100);
+            s.novoProf(professores[i]);
+        }
+        Aluno[] todos = new Aluno[alunos];
+        for (int i = 0; i < alunos; i++) {
+            todos[i] = new Aluno(nomeAleatorio(random), cpf(profs + i), String.format("%d%06d", ANO_INICIAL, i));
+            s.novoAluno(todos[i]);
+        }
+
+        int[] indices = new int[alunos];
+        for (int i = 0; i < alunos; i++) {
+            indices[i] = i;
+        }
+        int tamanhoTurma = Math.min(alunosPorTurma, alunos);
+
+        for (int sem = 0; sem < semestres; sem++) {
+            int ano = ANO_INICIAL - (sem + 1) / 2;
+            int semestre = (sem % 2 == 0) ? 1 : 2;
+            for (int t = 0; t < turmasPorSemestre; t++) {
+                // Sorteio parcial de Fisher-Yates: os primeiros 'tamanhoTurma' índices formam a turma
+                for (int i = 0; i < tamanhoTurma; i++) {
+                    int j = i + random.nextInt(alunos - i);
+                    int temp = indices[i];
+                    indices[i] = indices[j];
+                    indices[j] = temp;
+                }
+                Aluno[] alunosTurma = new Aluno[tamanhoTurma];
+                for (int i = 0; i < tamanhoTurma; i++) {
+                    alunosTurma[i] = todos[indices[i]];
+                }
+
+                Avaliacao[] avs = new Avaliacao[provas + trabalhos];
+                int mesInicial = (semestre == 1) ? 3 : 8;
+                for (int p = 0; p < provas; p++) {
+                    avs[p] = gerarProva("Prova " + (p + 1), new Data(1 + random.nextInt(28), mesInicial + p % 4, ano), alunosTurma, random);
+                }
+                for (int k = 0; k < trabalhos; k++) {
+                    avs[provas + k] = gerarTrabalho("Trabalho " + (k + 1), new Data(1 + random.nextInt(28), mesInicial + k % 4, ano), alunosTurma, random);
+                }
+
+                String nome = DISCIPLINAS[t % DISCIPLINAS.length] + ((t < DISCIPLINAS.length) ? "" : " " + (t / DISCIPLINAS.length + 1));
+                s.novaTurma(new Turma(nome, ano, semestre, professores[random.nextInt(profs)], alunosTurma, avs));
+            }
+        }
+        return s;
+    }
+
+    private Prova gerarProva(String nome, Data data, Aluno[] alunosTurma, Random random) {
+        Prova prova = new Prova(nome, data, VALOR_PROVA, questoes);
+        // Notas em meios pontos, até o valor de cada questão, para serem representadas exatamente em texto
+        int maxMeiosPontos = (int) (VALOR_PROVA / questoes * 2);
+        for (Aluno a : alunosTurma) {
+            AlunoProva ap = new AlunoProva(a, questoes);
+            for (int q = 0; q < questoes; q++) {
+                ap.adicionarNota(random.nextInt(maxMeiosPontos + 1) / 2.0);
+            }
+            prova.adicionarAlunoProva(ap);
+        }
+        return prova;
+    }
+
+    private Trabalho gerarTrabalho(String nome, Data data, Aluno[] alunosTurma, Random random) {
+        Trabalho trabalho = new Trabalho(nome, data, VALOR_TRABALHO, tamanhoGrupo);
+        for (int inicio = 0; inicio < alunosTurma.length; inicio += tamanhoGrupo) {
+            GrupoTrabalho grupo = new GrupoTrabalho();
+            for (int k = inicio; k < inicio + tamanhoGrupo && k < alunosTurma.length; k++) {
+                grupo.adicionarAluno(alunosTurma[k]);
+            }
+            grupo.setNota(random.nextInt((int) VALOR_TRABALHO * 2 + 1) / 2.0);
+            trabalho.adicionarGrupo(grupo);
+        }
+        return trabalho;
+    }
+
+    private static String nomeAleatorio(Random random) {
+        return NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+    }
+
+    // CPF formatado, único para cada índice
+    private static String cpf(int i) {
+        return String.format("%03d.%03d.%03d-%02d", (i / 1_000_000) % 1000, (i / 1000) % 1000, i % 1000, i % 97);
+    }
+
+    // *******************************************************
+    // ******************* SCRIPT input.txt ******************
+    // *******************************************************
+
+    /**
+     * Escreve um input.txt que, lido por Entrada a partir de um sistema vazio, cadastra exatamente
+     * os professores, alunos e turmas de 's', lista as turmas (opção 4) e sai (opção 0).
+     * Deve ser chamado antes de salvar 's': só as turmas em memória (getTurmas) são roteirizadas.
+     * @param s O sistema cujos dados serão roteirizados.
+     * @param fileName O arquivo de saída.
+     * @throws IOException se ocorrer erro de escrita.
+     */
+    public void escreverInput(Sistema s, String fileName) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+            writer.write("### Gerado por GeradorDados (semente " + semente + ")"); writer.newLine();
+            for (Professor p : s.getProfs()) {
+                escreverLinhas(writer, "1", p.getNome(), p.getCpf(), String.valueOf(p.getSalario()));
+            }
+            for (Aluno a : s.getAlunos()) {
+                escreverLinhas(writer, "2", a.getNome(), a.getCpf(), a.getMat());
+            }
+            for (Turma t : s.getTurmas()) {
+                writer.write("### Turma " + t.getNome() + " (" + t.getAno() + "/" + t.getSemestre() + ")"); writer.newLine();
+                escreverLinhas(writer, "3", t.getNome(), String.valueOf(t.getAno()), String.valueOf(t.getSemestre()), t.getProf().getCpf());
+                List<Aluno> alunosTurma = t.getAlunos();
+                escreverLinhas(writer, String.valueOf(alunosTurma.size()));
+                for (Aluno a : alunosTurma) {
+                    escreverLinhas(writer, a.getMat());
+                }
+                escreverLinhas(writer, String.valueOf(t.getAvs().size()));
+                for (Avaliacao aval : t.getAvs()) {
+                    Data d = aval.getData();
+                    if (aval instanceof Prova) {
+                        Prova prova = (Prova) aval;
+                        escreverLinhas(writer, "1", prova.getNome(), String.valueOf(d.getDia()), String.valueOf(d.getMes()),
+                                String.valueOf(d.getAno()), String.valueOf(prova.getValor()), String.valueOf(prova.getNQuestoes()));
+                        for (AlunoProva ap : prova.getAlunosProvas()) {
+                            for (int q = 0; q < ap.getQtdNotas(); q++) {
+                                escreverLinhas(writer, String.valueOf(ap.getNota(q)));
+                            }
+                        }
+                    } else if (aval instanceof Trabalho) {
+                        Trabalho trabalho = (Trabalho) aval;
+                        escreverLinhas(writer, "2", trabalho.getNome(), String.valueOf(d.getDia()), String.valueOf(d.getMes()),
+                                String.valueOf(d.getAno()), String.valueOf(trabalho.getValor()), String.valueOf(trabalho.getNIntegrantes()),
+                                String.valueOf(trabalho.getGrupos().size()));
+                        for (GrupoTrabalho gt : trabalho.getGrupos()) {
+                            escreverLinhas(writer, String.valueOf(gt.getAlunos().size()));
+                            for (Aluno a : gt.getAlunos()) {
+                                escreverLinhas(writer, a.getMat());
+                            }
+                            escreverLinhas(writer, String.valueOf(gt.getNota()));
+                        }
+                    }
+                }
+            }
+            escreverLinhas(writer, "4", "0");
+        }
+    }
+
+    private static void escreverLinhas(BufferedWriter writer, String... linhas) throws IOException {
+        for (String linha : linhas) {
+            writer.write(linha); writer.newLine();
+        }
+    }
+}
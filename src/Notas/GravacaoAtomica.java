@@ -0,0 +1,71 @@
+package Notas;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Substituição atômica de arquivos de snapshot.
+ * O snapshot é gravado por completo em um arquivo temporário ao lado do destino (ex.: "dados.txt.tmp"),
+ * sincronizado com o disco e só então renomeado sobre o destino. Uma queda durante a gravação
+ * deixa o snapshot anterior intacto; no máximo sobra o temporário, descartado no próximo carregamento.
+ */
+public class GravacaoAtomica {
+    public static final String SUFIXO_TEMPORARIO = ".tmp";
+
+    /**
+     * @param fileName O arquivo de destino.
+     * @return O arquivo temporário usado na gravação de fileName.
+     */
+    public static File arquivoTemporario(String fileName) {
+        return new File(fileName + SUFIXO_TEMPORARIO);
+    }
+
+    /**
+     * Renomeia o temporário (já gravado e sincronizado) sobre o destino e sincroniza o diretório,
+     * para que a própria renomeação sobreviva a uma queda de energia.
+     * @param temporario O arquivo temporário completo.
+     * @param fileName O arquivo de destino.
+     * @throws IOException se a renomeação falhar (o destino anterior continua válido).
+     */
+    public static void substituir(File temporario, String fileName) throws IOException {
+        Path destino = new File(fileName).toPath();
+        try {
+            Files.move(temporario.toPath(), destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario.toPath(), destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        sincronizarDiretorio(destino.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Descarta o temporário deixado por uma gravação interrompida, se houver.
+     * @param fileName O arquivo de destino.
+     */
+    public static void descartarTemporario(String fileName) {
+        File temporario = arquivoTemporario(fileName);
+        if (temporario.exists()) {
+            if (temporario.delete()) {
+                System.out.println("Gravação interrompida de '" + temporario.getName() + "' descartada; '" + fileName + "' continua válido.");
+            } else {
+                System.err.println("Não foi possível descartar o arquivo temporário '" + temporario.getName() + "'.");
+            }
+        }
+    }
+
+    private static void sincronizarDiretorio(Path diretorio) {
+        if (diretorio == null) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Nem todo sistema operacional permite abrir diretórios (ex.: Windows); a renomeação já foi feita
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package Notas;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class GrupoTrabalho implements ICalculavel { // Implementa a interface ICalculavel
     private double nota;
     private List<Aluno> alunos;
+    private Trabalho trabalho; // Trabalho que inclui este grupo, avisado quando a nota muda; null se nenhum
 
     public GrupoTrabalho() {
         this.alunos = new ArrayList<>();
@@ -17,7 +19,14 @@ public class GrupoTrabalho implements ICalculavel { // Implementa a interface IC
             throw new IllegalArgumentException("Não é possível adicionar um aluno nulo ao grupo de trabalho.");
         }
         if (!alunoNoGrupo(aluno.getCpf())) {
+            // Se o grupo já está em um trabalho, o aluno não pode estar em outro grupo dele
+            if (this.trabalho != null) {
+                this.trabalho.validarIntegrante(this, aluno);
+            }
             this.alunos.add(aluno);
+            if (this.trabalho != null) {
+                this.trabalho.integranteIncluido(this, aluno);
+            }
         } else {
             throw new IllegalArgumentException("Aluno com CPF " + aluno.getCpf() + " já está presente neste grupo de trabalho.");
         }
@@ -36,8 +45,9 @@ public class GrupoTrabalho implements ICalculavel { // Implementa a interface IC
         return nota;
     }
 
+    // Somente leitura: integrantes devem ser incluídos por adicionarAluno para o trabalho ser avisado
     public List<Aluno> getAlunos() {
-        return alunos;
+        return Collections.unmodifiableList(alunos);
     }
 
     public void setNota(double nota) {
@@ -46,6 +56,19 @@ public class GrupoTrabalho implements ICalculavel { // Implementa a interface IC
             throw new IllegalArgumentException("A nota do grupo de trabalho não pode ser um valor negativo.");
         }
         this.nota = nota;
+        if (this.trabalho != null) {
+            for (Aluno aluno : this.alunos) {
+                this.trabalho.notaAlterada(aluno.getCpf());
+            }
+        }
+    }
+
+    // Chamado pelo Trabalho que inclui este grupo, antes de incluí-lo: um grupo pertence a um só trabalho
+    void registrarTrabalho(Trabalho t) {
+        if (this.trabalho != null && this.trabalho != t) {
+            throw new IllegalArgumentException("Este grupo já pertence ao trabalho " + this.trabalho.getNome() + ".");
+        }
+        this.trabalho = t;
     }
 
     @Override
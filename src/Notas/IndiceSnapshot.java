@@ -0,0 +1,313 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice de um snapshot texto (ex.: "dados.idx" para "dados.txt"), gravado por SnapshotTexto
+ * junto com o snapshot. Guarda a posição e o tamanho, em bytes, de cada bloco TUR, para que o
+ * carregamento possa interpretar as turmas em paralelo (ver CarregamentoParalelo), e de cada
+ * registro PROF e ALU, para que uma única turma possa ser lida sem carregar o resto (ver ConsultaTurma).
+ *
+ * Formato:
+ * <pre>
+ * IDX 2 &lt;tamanho do snapshot&gt; &lt;CRC32 do trailer do snapshot&gt;
+ * &lt;início da seção TUR&gt; &lt;fim do último bloco TUR&gt; &lt;turmas&gt; &lt;professores&gt; &lt;alunos&gt;
+ * &lt;posição&gt; &lt;tamanho&gt; &lt;ano&gt; &lt;semestre&gt; &lt;nome&gt;   (uma linha por turma, na ordem do arquivo)
+ * &lt;posição&gt; &lt;tamanho&gt; &lt;CPF&gt;                       (uma linha por professor, em ordem de CPF)
+ * &lt;posição&gt; &lt;tamanho&gt; &lt;matrícula&gt;                 (uma linha por aluno, em ordem de matrícula)
+ * </pre>
+ * Professores e alunos ficam ordenados pela chave para que uma consulta encontre cada um por busca
+ * binária, interpretando só as linhas visitadas, em vez de ler o índice inteiro.
+ * O tamanho e o CRC identificam o snapshot: um índice que não corresponde a ele é ignorado.
+ * Se as posições dos registros PROF/ALU não puderem ser calculadas, as duas quantidades são gravadas como -1.
+ */
+public class IndiceSnapshot {
+    private static final String CABECALHO = "IDX";
+    public static final int VERSAO = 2;
+
+    /**
+     * Posição e tamanho, em bytes, de cada registro de uma seção, com a chave usada na busca
+     * (CPF, matrícula ou a chave da turma, ver chaveTurma). Numa seção lida do arquivo, cada linha
+     * só é interpretada quando o seu registro é consultado.
+     */
+    public static class Secao {
+        private final String[] chaves;
+        private final long[] posicoes;
+        private final long[] tamanhos;
+        private final byte[] linhas;   // Linhas do índice ainda não interpretadas (null numa seção montada na gravação)
+        private final int[] inicios;   // Linha i = linhas[inicios[i] .. inicios[i + 1])
+        private final boolean ordenada;
+        private Map<String, Integer> porChave; // Montado na primeira busca de uma seção não ordenada
+
+        public Secao(String[] chaves, long[] posicoes, long[] tamanhos) {
+            if (chaves.length != posicoes.length || posicoes.length != tamanhos.length) {
+                throw new IllegalArgumentException("Chaves, posições e tamanhos do índice devem ter a mesma quantidade de registros.");
+            }
+            this.chaves = chaves;
+            this.posicoes = posicoes;
+            this.tamanhos = tamanhos;
+            this.linhas = null;
+            this.inicios = null;
+            this.ordenada = false;
+        }
+
+        private Secao(byte[] linhas, int[] inicios, boolean ordenada) {
+            int quantidade = inicios.length - 1;
+            this.chaves = new String[quantidade];
+            this.posicoes = new long[quantidade];
+            this.tamanhos = new long[quantidade];
+            this.linhas = linhas;
+            this.inicios = inicios;
+            this.ordenada = ordenada;
+        }
+
+        public int getQuantidade() {
+            return chaves.length;
+        }
+
+        public String getChave(int registro) {
+            interpretar(registro);
+            return chaves[registro];
+        }
+
+        public long getPosicao(int registro) {
+            interpretar(registro);
+            return posicoes[registro];
+        }
+
+        public long getTamanho(int registro) {
+            interpretar(registro);
+            return tamanhos[registro];
+        }
+
+        private synchronized void interpretar(int registro) {
+            if (chaves[registro] != null) {
+                return;
+            }
+            int fim = inicios[registro + 1];
+            while (fim > inicios[registro] && (linhas[fim - 1] == '\n' || linhas[fim - 1] == '\r')) {
+                fim--;
+            }
+            String[] campos = new String(linhas, inicios[registro], fim - inicios[registro], Charset.defaultCharset()).split(" ", 3);
+            posicoes[registro] = Long.parseLong(campos[0]);
+            tamanhos[registro] = Long.parseLong(campos[1]);
+            chaves[registro] = campos[2];
+        }
+
+        /**
+         * Busca uma chave: binária nas seções ordenadas (professores e alunos), por tabela nas demais.
+         * @return O número do registro com a chave, ou -1 se não houver.
+         * @throws RuntimeException se a linha do índice estiver corrompida.
+         */
+        public int buscar(String chave) {
+            if (ordenada) {
+                int inicio = 0;
+                int fim = chaves.length - 1;
+                while (inicio <= fim) {
+                    int meio = (inicio + fim) >>> 1;
+                    int comparacao = getChave(meio).compareTo(chave);
+                    if (comparacao == 0) {
+                        return meio;
+                    } else if (comparacao < 0) {
+                        inicio = meio + 1;
+                    } else {
+                        fim = meio - 1;
+                    }
+                }
+                return -1;
+            }
+            synchronized (this) {
+                if (porChave == null) {
+                    porChave = new HashMap<>(chaves.length * 2);
+                    for (int i = chaves.length - 1; i >= 0; i--) {
+                        porChave.put(getChave(i), i);
+                    }
+                }
+            }
+            Integer registro = porChave.get(chave);
+            return (registro != null) ? registro : -1;
+        }
+    }
+
+    private final long tamanhoSnapshot;
+    private final long crcSnapshot;
+    private final long inicioTurmas;
+    private final long fimTurmas;
+    private final Secao turmas;
+    private final Secao profs;  // null se as posições dos registros PROF/ALU não estiverem no índice
+    private final Secao alunos;
+
+    public IndiceSnapshot(long tamanhoSnapshot, long crcSnapshot, long inicioTurmas, long fimTurmas, Secao turmas, Secao profs, Secao alunos) {
+        if ((profs == null) != (alunos == null)) {
+            throw new IllegalArgumentException("As seções de professores e alunos do índice devem ser informadas juntas.");
+        }
+        this.tamanhoSnapshot = tamanhoSnapshot;
+        this.crcSnapshot = crcSnapshot;
+        this.inicioTurmas = inicioTurmas;
+        this.fimTurmas = fimTurmas;
+        this.turmas = turmas;
+        this.profs = profs;
+        this.alunos = alunos;
+    }
+
+    /**
+     * @return A chave de busca de uma turma no índice. Como em Sistema.novaTurma, o nome não diferencia maiúsculas.
+     */
+    public static String chaveTurma(String nome, int ano, int semestre) {
+        return ano + " " + semestre + " " + nome.toLowerCase(Locale.ROOT);
+    }
+
+    public long getInicioTurmas() {
+        return inicioTurmas;
+    }
+
+    public long getFimTurmas() {
+        return fimTurmas;
+    }
+
+    public int getQtdTurmas() {
+        return turmas.getQuantidade();
+    }
+
+    public long getPosicao(int turma) {
+        return turmas.getPosicao(turma);
+    }
+
+    public long getTamanho(int turma) {
+        return turmas.getTamanho(turma);
+    }
+
+    public Secao getTurmas() {
+        return turmas;
+    }
+
+    /**
+     * @return Os registros PROF, ou null se o índice não guarda as posições de professores e alunos.
+     */
+    public Secao getProfs() {
+        return profs;
+    }
+
+    public Secao getAlunos() {
+        return alunos;
+    }
+
+    /**
+     * @param fileName O arquivo de snapshot.
+     * @return O nome do índice correspondente (ex.: "dados.txt" -> "dados.idx").
+     */
+    public static String nomeIndice(String fileName) {
+        return Sistema.trocarExtensao(fileName, ".idx");
+    }
+
+    /**
+     * Grava o índice do snapshot fileName (em um temporário renomeado atomicamente).
+     * @throws IOException se ocorrer erro de escrita.
+     */
+    public void gravar(String fileName) throws IOException {
+        String nome = nomeIndice(fileName);
+        File temporario = GravacaoAtomica.arquivoTemporario(nome);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temporario))) {
+            writer.write(CABECALHO + " " + VERSAO + " " + tamanhoSnapshot + " " + VerificacaoSnapshot.hex(crcSnapshot)); writer.newLine();
+            writer.write(inicioTurmas + " " + fimTurmas + " " + turmas.getQuantidade() + " "
+                    + (profs != null ? profs.getQuantidade() : -1) + " " + (alunos != null ? alunos.getQuantidade() : -1));
+            writer.newLine();
+            gravarSecao(writer, turmas, false);
+            if (profs != null) {
+                gravarSecao(writer, profs, true);
+                gravarSecao(writer, alunos, true);
+            }
+        } catch (IOException e) {
+            temporario.delete();
+            throw e;
+        }
+        GravacaoAtomica.substituir(temporario, nome);
+    }
+
+    private static void gravarSecao(BufferedWriter writer, Secao secao, boolean ordenar) throws IOException {
+        Integer[] ordem = new Integer[secao.getQuantidade()];
+        for (int i = 0; i < ordem.length; i++) {
+            ordem[i] = i;
+        }
+        if (ordenar) {
+            Arrays.sort(ordem, Comparator.comparing(secao::getChave));
+        }
+        for (int i : ordem) {
+            writer.write(secao.getPosicao(i) + " " + secao.getTamanho(i) + " " + secao.getChave(i)); writer.newLine();
+        }
+    }
+
+    /**
+     * Lê o índice de um snapshot texto já verificado.
+     * @param fileName O arquivo de snapshot.
+     * @param verificacao O resultado de VerificacaoSnapshot.verificarTexto para fileName.
+     * @return O índice, ou null se ele não existir, estiver inválido ou não corresponder ao snapshot.
+     */
+    public static IndiceSnapshot ler(String fileName, VerificacaoSnapshot verificacao) {
+        if (!verificacao.isIntegro()) {
+            return null;
+        }
+        // O carregamento só usa as posições das turmas
+        return ler(fileName, new File(fileName).length(), verificacao.getCrcArquivo(), false);
+    }
+
+    /**
+     * Lê o índice de um snapshot texto, conferindo se ele corresponde ao snapshot pelo tamanho e pelo CRC do trailer.
+     * @param comPessoas Se as posições dos registros PROF/ALU também devem ser lidas.
+     * @return O índice, ou null se ele não existir, estiver inválido ou não corresponder ao snapshot.
+     */
+    static IndiceSnapshot ler(String fileName, long tamanhoSnapshot, long crcSnapshot, boolean comPessoas) {
+        File indice = new File(nomeIndice(fileName));
+        if (!indice.exists()) {
+            return null;
+        }
+        try {
+            byte[] dados = Files.readAllBytes(indice.toPath());
+            int[] linha = inicioLinhas(dados, 0, 2);
+            String[] cabecalho = new String(dados, 0, linha[1], StandardCharsets.US_ASCII).trim().split(" ");
+            if (!cabecalho[0].equals(CABECALHO) || Integer.parseInt(cabecalho[1]) != VERSAO
+                    || Long.parseLong(cabecalho[2]) != tamanhoSnapshot
+                    || Long.parseLong(cabecalho[3], 16) != crcSnapshot) {
+                return null; // Índice de outro snapshot (ex.: de uma gravação anterior)
+            }
+            String[] secao = new String(dados, linha[1], linha[2] - linha[1], StandardCharsets.US_ASCII).trim().split(" ");
+            int[] linhasTurmas = inicioLinhas(dados, linha[2], Integer.parseInt(secao[2]));
+            Secao turmas = new Secao(dados, linhasTurmas, false);
+            Secao profs = null;
+            Secao alunos = null;
+            if (comPessoas && Integer.parseInt(secao[3]) >= 0) {
+                int[] linhasProfs = inicioLinhas(dados, linhasTurmas[linhasTurmas.length - 1], Integer.parseInt(secao[3]));
+                profs = new Secao(dados, linhasProfs, true);
+                alunos = new Secao(dados, inicioLinhas(dados, linhasProfs[linhasProfs.length - 1], Integer.parseInt(secao[4])), true);
+            }
+            return new IndiceSnapshot(tamanhoSnapshot, crcSnapshot, Long.parseLong(secao[0]), Long.parseLong(secao[1]), turmas, profs, alunos);
+        } catch (IOException | RuntimeException e) {
+            return null; // O índice é só um atalho: sem ele, o carregamento é sequencial
+        }
+    }
+
+    // Início de cada uma das 'quantidade' linhas a partir de 'inicio', seguido do início da linha seguinte
+    private static int[] inicioLinhas(byte[] dados, int inicio, int quantidade) {
+        int[] inicios = new int[quantidade + 1];
+        inicios[0] = inicio;
+        int posicao = inicio;
+        for (int i = 1; i <= quantidade; i++) {
+            while (dados[posicao] != '\n') { // Índice truncado: ArrayIndexOutOfBoundsException
+                posicao++;
+            }
+            inicios[i] = ++posicao;
+        }
+        return inicios;
+    }
+}
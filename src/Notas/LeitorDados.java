@@ -0,0 +1,379 @@
+package Notas;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Leitor bufferizado de dados.txt que trabalha direto sobre um vetor de bytes.
+ * Substitui o Scanner no carregamento: ignora linhas vazias e comentários ('#'),
+ * converte inteiros e doubles sem criar Strings intermediárias e informa o número
+ * da linha nas mensagens de erro.
+ */
+public class LeitorDados implements Closeable {
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    // Potências de 10 exatamente representáveis em double (até 10^22)
+    private static final double[] POTENCIAS_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_MANTISSA_EXATA = 1L << 53;
+
+    private final InputStream in;
+    private final String nomeArquivo;
+    // Mesmo charset usado pelo FileWriter de salvarSistema
+    private final Charset charset = Charset.defaultCharset();
+
+    private byte[] buffer;
+    private int pos;        // Próximo byte ainda não consumido
+    private int lim;        // Fim dos bytes válidos no buffer
+    private boolean fimEntrada;
+    private boolean pularLF; // A linha anterior terminou em '\r'; um '\n' seguinte faz parte da mesma quebra
+    private long posicaoBase; // Posição, no arquivo, do byte buffer[0]
+
+    // Região da última linha lida, válida até a próxima leitura
+    private int inicioLinha;
+    private int fimLinha;
+    private int numeroLinha;
+
+    private int leiturasNoFim;            // Leituras que pediram uma linha depois do fim dos dados
+    private boolean ultimaLinhaSemQuebra; // A última linha terminou no fim dos dados, sem quebra de linha
+    private long inicioCorte = -1;        // Início do registro cortado pelo fim dos dados (ver Sistema.lerRegistros)
+
+    private RelatorioCarregamento relatorio; // Onde os problemas de interpretação destes dados são registrados
+
+    public LeitorDados(String nomeArquivo) throws FileNotFoundException {
+        this(new FileInputStream(nomeArquivo), nomeArquivo);
+    }
+
+    public LeitorDados(InputStream in, String nomeArquivo) {
+        this(in, nomeArquivo, 0, 0);
+    }
+
+    /**
+     * Lê a partir do ponto atual de 'in', que fica na posição 'posicaoInicial' do arquivo, depois de
+     * 'linhasAnteriores' linhas (para que getPosicao e as mensagens de erro se refiram ao arquivo completo).
+     */
+    public LeitorDados(InputStream in, String nomeArquivo, int linhasAnteriores, long posicaoInicial) {
+        this(in, nomeArquivo, linhasAnteriores, posicaoInicial, TAMANHO_BUFFER);
+    }
+
+    // Com um buffer inicial menor, para trechos curtos (ele cresce se uma linha não couber)
+    LeitorDados(InputStream in, String nomeArquivo, int linhasAnteriores, long posicaoInicial, int tamanhoBuffer) {
+        this.buffer = new byte[tamanhoBuffer];
+        this.in = in;
+        this.nomeArquivo = nomeArquivo;
+        this.numeroLinha = linhasAnteriores;
+        this.posicaoBase = posicaoInicial;
+    }
+
+    /**
+     * Lê os bytes [inicio, fim) de um vetor já carregado, sem copiá-lo. dados[inicio] fica na
+     * posição 'posicaoInicial' do arquivo.
+     */
+    public LeitorDados(byte[] dados, int inicio, int fim, String nomeArquivo, int linhasAnteriores, long posicaoInicial) {
+        this.in = null;
+        this.nomeArquivo = nomeArquivo;
+        this.numeroLinha = linhasAnteriores;
+        this.posicaoBase = posicaoInicial - inicio;
+        this.buffer = dados;
+        this.pos = inicio;
+        this.lim = fim;
+        this.fimEntrada = true;
+    }
+
+    public String getNomeArquivo() {
+        return nomeArquivo;
+    }
+
+    // Número (a partir de 1) da última linha lida
+    public int getNumeroLinha() {
+        return numeroLinha;
+    }
+
+    // Posição, no arquivo, do primeiro byte ainda não lido
+    public long getPosicao() {
+        return posicaoBase + pos;
+    }
+
+    // Posição, no arquivo, do início da última linha lida
+    public long getPosicaoUltimaLinha() {
+        return posicaoBase + inicioLinha;
+    }
+
+    /**
+     * @return true se os dados terminaram no meio do que se esperava ler: mais de uma leitura depois do
+     *         fim (a primeira é a da próxima tag, em Sistema.lerRegistros) ou uma última linha sem quebra,
+     *         que quem grava sempre escreve. É o que sobra de um append interrompido no diário.
+     */
+    public boolean isCortado() {
+        return leiturasNoFim > 1 || ultimaLinhaSemQuebra;
+    }
+
+    // Posição do início do registro cortado pelo fim dos dados, ou -1 se nenhum foi (ver Sistema.lerRegistros)
+    public long getInicioCorte() {
+        return inicioCorte;
+    }
+
+    void setInicioCorte(long inicioCorte) {
+        this.inicioCorte = inicioCorte;
+    }
+
+    /**
+     * @return O relatório em que os problemas destes dados são registrados; se nenhum foi definido,
+     *         um próprio, que cabe a quem criou o leitor relatar.
+     */
+    public RelatorioCarregamento getRelatorio() {
+        if (relatorio == null) {
+            relatorio = new RelatorioCarregamento(nomeArquivo);
+        }
+        return relatorio;
+    }
+
+    public void setRelatorio(RelatorioCarregamento relatorio) {
+        this.relatorio = relatorio;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    // *******************************************************
+    // **************** LEITURA DE CAMPOS ********************
+    // *******************************************************
+
+    /**
+     * Lê a próxima linha útil (não vazia e que não começa com '#').
+     * @return A linha lida, ou null se o fim do arquivo for atingido.
+     */
+    public String lerLinha() {
+        if (!proximaLinhaUtil()) {
+            return null;
+        }
+        return new String(buffer, inicioLinha, fimLinha - inicioLinha, charset);
+    }
+
+    /**
+     * Lê a próxima linha útil como inteiro, sem criar uma String intermediária.
+     * @return O inteiro lido, ou null se o fim do arquivo for atingido.
+     * @throws NumberFormatException se a linha não for um inteiro válido (a mensagem inclui o número da linha).
+     */
+    public Integer lerInteiro() {
+        if (!proximaLinhaUtil()) {
+            return null;
+        }
+        int i = inicioLinha;
+        boolean negativo = false;
+        if (i < fimLinha && (buffer[i] == '-' || buffer[i] == '+')) {
+            negativo = buffer[i] == '-';
+            i++;
+        }
+        if (i == fimLinha || fimLinha - i > 10) {
+            return converterComParseInt(); // Vazio ou com zeros à esquerda: caso raro, delega a validação
+        }
+        long valor = 0;
+        for (; i < fimLinha; i++) {
+            int digito = buffer[i] - '0';
+            if (digito < 0 || digito > 9) {
+                throw erroFormato("inteiro");
+            }
+            valor = valor * 10 + digito;
+        }
+        valor = negativo ? -valor : valor;
+        if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+            throw erroFormato("inteiro");
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Lê a próxima linha útil como double. Números simples como "10.0" ou "-7.25" são convertidos
+     * direto dos bytes; formatos menos comuns (expoente, muitos dígitos, NaN) recorrem a Double.parseDouble,
+     * então o resultado é sempre idêntico ao de Double.parseDouble.
+     * @return O double lido, ou null se o fim do arquivo for atingido.
+     * @throws NumberFormatException se a linha não for um double válido (a mensagem inclui o número da linha).
+     */
+    public Double lerDouble() {
+        if (!proximaLinhaUtil()) {
+            return null;
+        }
+        int i = inicioLinha;
+        boolean negativo = false;
+        if (i < fimLinha && (buffer[i] == '-' || buffer[i] == '+')) {
+            negativo = buffer[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int casasDecimais = 0;
+        int digitos = 0;
+        boolean ponto = false;
+        for (; i < fimLinha; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digitos++;
+                if (ponto) {
+                    casasDecimais++;
+                }
+                if (mantissa >= MAX_MANTISSA_EXATA) {
+                    return converterComParseDouble();
+                }
+            } else if (b == '.' && !ponto) {
+                ponto = true;
+            } else {
+                // Expoente, sufixos (d/f), NaN/Infinity ou lixo: deixa a validação para Double.parseDouble
+                return converterComParseDouble();
+            }
+        }
+        if (digitos == 0 || casasDecimais >= POTENCIAS_10.length) {
+            return converterComParseDouble();
+        }
+        // Mantissa e potência de 10 são exatas em double, então a divisão é corretamente arredondada
+        double valor = mantissa / POTENCIAS_10[casasDecimais];
+        return negativo ? -valor : valor;
+    }
+
+    private Double converterComParseDouble() {
+        String linha = new String(buffer, inicioLinha, fimLinha - inicioLinha, charset);
+        try {
+            return Double.parseDouble(linha);
+        } catch (NumberFormatException e) {
+            throw erroFormato("double");
+        }
+    }
+
+    private Integer converterComParseInt() {
+        String linha = new String(buffer, inicioLinha, fimLinha - inicioLinha, charset);
+        try {
+            return Integer.parseInt(linha);
+        } catch (NumberFormatException e) {
+            throw erroFormato("inteiro");
+        }
+    }
+
+    private NumberFormatException erroFormato(String tipo) {
+        String linha = new String(buffer, inicioLinha, fimLinha - inicioLinha, charset);
+        return new NumberFormatException("Formato de número " + tipo + " inválido ao ler do arquivo '" + nomeArquivo
+                + "' (linha " + numeroLinha + "): '" + linha + "'");
+    }
+
+    /**
+     * Pula as próximas linhas úteis sem interpretá-las.
+     * @param quantidade Quantas linhas pular.
+     * @return Quantas linhas foram de fato puladas (menos que 'quantidade' no fim do arquivo).
+     */
+    public int pularLinhas(int quantidade) {
+        int puladas = 0;
+        while (puladas < quantidade && proximaLinhaUtil()) {
+            puladas++;
+        }
+        return puladas;
+    }
+
+    // *******************************************************
+    // ************* CONTROLE DO BUFFER DE BYTES *************
+    // *******************************************************
+
+    // Avança até a próxima linha não vazia que não seja comentário. Retorna false no fim do arquivo.
+    private boolean proximaLinhaUtil() {
+        while (proximaLinha()) {
+            if (fimLinha == inicioLinha) {
+                continue; // Linha vazia
+            }
+            int i = inicioLinha;
+            while (i < fimLinha && (buffer[i] & 0xFF) <= ' ') {
+                i++;
+            }
+            if (i < fimLinha && buffer[i] == '#') {
+                continue; // Comentário
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Delimita a próxima linha física em [inicioLinha, fimLinha). Retorna false se não houver mais linhas.
+    private boolean proximaLinha() {
+        if (pularLF) {
+            if (pos == lim) {
+                preencher();
+            }
+            if (pos < lim && buffer[pos] == '\n') {
+                pos++;
+            }
+            pularLF = false;
+        }
+
+        int inicio = pos;
+        int i = pos;
+        while (true) {
+            while (i < lim) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    inicioLinha = inicio;
+                    fimLinha = i;
+                    pos = i + 1;
+                    pularLF = (b == '\r');
+                    numeroLinha++;
+                    return true;
+                }
+                i++;
+            }
+            if (fimEntrada) {
+                break;
+            }
+            // Linha incompleta: desloca para o início do buffer (ou aumenta o buffer) e lê mais bytes
+            preencherPreservando(inicio);
+            i -= inicio;
+            inicio = 0;
+        }
+
+        if (inicio == lim) {
+            leiturasNoFim++;
+            return false; // Nada depois da última quebra de linha
+        }
+        ultimaLinhaSemQuebra = true;
+        inicioLinha = inicio;
+        fimLinha = lim;
+        pos = lim;
+        numeroLinha++;
+        return true;
+    }
+
+    private void preencher() {
+        if (!fimEntrada) {
+            preencherPreservando(pos);
+        }
+    }
+
+    // Move os bytes a partir de 'inicio' para o começo do buffer e lê mais dados da entrada.
+    private void preencherPreservando(int inicio) {
+        int restantes = lim - inicio;
+        if (inicio > 0) {
+            System.arraycopy(buffer, inicio, buffer, 0, restantes);
+        } else if (restantes == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2); // Linha maior que o buffer
+        }
+        pos -= inicio;
+        lim = restantes;
+        posicaoBase += inicio;
+        try {
+            int lidos = in.read(buffer, lim, buffer.length - lim);
+            if (lidos < 0) {
+                fimEntrada = true;
+            } else {
+                lim += lidos;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro de leitura no arquivo '" + nomeArquivo + "'", e);
+        }
+    }
+}
@@ -9,15 +9,30 @@ import java.io.IOException;
  */
 public class Main {
     private static final String DATA_FILE_NAME = "dados.txt"; // Arquivo de SAÍDA e ENTRADA de persistência
+    private static final long INTERVALO_GRAVACAO_MS = 500;    // Atraso máximo entre um cadastro e sua gravação
+    private static final int MAX_OPERACOES_POR_GRAVACAO = 20; // Cadastros pendentes que disparam gravação imediata
 
     public static void main(String[] args) {
         Entrada io = new Entrada(); // Tenta ler input.txt, senão System.in para interação
         Sistema s = new Sistema();
 
+        // Formato opcional do snapshot gravado ao salvar (ex.: "java Notas.Main BINARIO"); o padrão é TEXTO.
+        // Na leitura o formato é detectado pelo cabeçalho do arquivo, então qualquer dados.txt existente continua válido.
+        if (args.length > 0) {
+            try {
+                s.setFormatoSnapshot(FormatoSnapshot.valueOf(args[0].toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Formato de snapshot desconhecido: '" + args[0] + "'. Usando TEXTO.");
+            }
+        }
+
         // Faz o pré-carregamento dos dados salvos no dados.txt ao iniciar o código.
         // Este é um requisito do professor.
         s.carregarSistema(DATA_FILE_NAME, io);
 
+        // A partir daqui os cadastros são gravados no diário em segundo plano, em lotes
+        ServicoPersistencia persistencia = new ServicoPersistencia(s, DATA_FILE_NAME, INTERVALO_GRAVACAO_MS, MAX_OPERACOES_POR_GRAVACAO);
+
         System.out.println("\n--- Sistema pronto para interação ---");
 
         int op = -1; // A opção agora é um inteiro
@@ -37,6 +52,9 @@ public class Main {
                     case 4: // Listar turmas
                         s.listarTurmas();
                         break;
+                    case 5: // Listar turmas de um semestre (lido do arquivo morto, se arquivado)
+                        io.listarSemestre(s);
+                        break;
                     case 0: // Sair
                         System.out.println("Saindo do sistema...");
                         // A listagem final já é feita no finally
@@ -45,14 +63,11 @@ public class Main {
                         System.out.println("Opção inválida. Tente novamente.");
                         break;
                 }
-                // Salva o sistema após cada operação de cadastro (e também se o arquivo input.txt tiver sido lido)
-                if (op >=1 && op <= 3) { // Salva após cadastrar professor, aluno ou turma
-                    try {
-                        s.salvarSistema(DATA_FILE_NAME, io);
-                        System.out.println("Alterações salvas em '" + DATA_FILE_NAME + "'.");
-                    } catch (IOException e) {
-                        System.err.println("Erro ao salvar alterações no arquivo: " + e.getMessage());
-                    }
+                // Cada cadastro é gravado no diário (dados.journal) pelo serviço de persistência em segundo plano,
+                // que também compacta o diário em um snapshot completo quando ele fica grande. Aqui ele só foi
+                // entregue ao serviço: a gravação acontece em lote, logo depois ou ao sair.
+                if (op >=1 && op <= 3) {
+                    System.out.println("Alterações agendadas para gravação em '" + Sistema.nomeDiario(DATA_FILE_NAME) + "'.");
                 }
             }
         } catch (IllegalStateException e) {
@@ -67,8 +82,9 @@ public class Main {
             e.printStackTrace(); // Para depuração
         } finally {
             io.input.close(); // Garante que o scanner seja fechado
+            persistencia.fechar(); // Grava no diário o que ainda estiver pendente
 
-            // Salva o sistema uma última vez ao sair, garantindo que o estado final seja persistido
+            // Salva o sistema uma última vez ao sair, compactando o diário no snapshot final
             try {
                 s.salvarSistema(DATA_FILE_NAME, io);
                 System.out.println("Estado final do sistema salvo em '" + DATA_FILE_NAME + "'.");
@@ -0,0 +1,146 @@
+package Notas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado imutável do cálculo de médias de uma turma: a nota de cada aluno em cada avaliação,
+ * o total (média final) de cada aluno, a ordem de classificação e a média da turma.
+ *
+ * É obtido por Turma.getMedias, que guarda o resultado até a turma mudar, e exibido por
+ * RelatorioMedias. Os índices de aluno e de avaliação seguem a ordem da turma no momento do cálculo.
+ * A ordem de classificação vem da classificação incremental da turma (RankingTurma).
+ */
+public final class MediasTurma {
+    private final String nomeTurma;
+    private final int ano;
+    private final int semestre;
+    private final List<Aluno> alunos;
+    private final List<Avaliacao> avs;
+    private final double[][] notas; // notas[aluno][avaliacao]; NaN se a nota não pôde ser obtida
+    private final double[] totais;
+    private final int[] ordem;
+    private final double mediaTurma;
+
+    private MediasTurma(Turma t, List<Aluno> alunos, List<Avaliacao> avs, double[][] notas, double[] totais, int[] ordem, double mediaTurma) {
+        this.nomeTurma = t.getNome();
+        this.ano = t.getAno();
+        this.semestre = t.getSemestre();
+        this.alunos = alunos;
+        this.avs = avs;
+        this.notas = notas;
+        this.totais = totais;
+        this.ordem = ordem;
+        this.mediaTurma = mediaTurma;
+    }
+
+    /**
+     * Calcula as médias da turma. Cada nota é consultada uma única vez por aluno x avaliação; as que
+     * não puderem ser obtidas são relatadas em System.err e contam como 0 no total do aluno.
+     */
+    static MediasTurma calcular(Turma t) {
+        List<Aluno> alunos = Collections.unmodifiableList(new ArrayList<>(t.getAlunos()));
+        List<Avaliacao> avs = Collections.unmodifiableList(new ArrayList<>(t.getAvs()));
+        int nAlunos = alunos.size();
+        int nAvs = avs.size();
+
+        double maxTotalAvaliacoes = valorMaximo(avs);
+
+        double[][] notas = new double[nAlunos][nAvs];
+        double[] totais = new double[nAlunos];
+        for (int i = 0; i < nAlunos; i++) {
+            Aluno aluno = alunos.get(i);
+            double totalAluno = 0;
+            for (int j = 0; j < nAvs; j++) {
+                Avaliacao aval = avs.get(j);
+                try {
+                    notas[i][j] = aval.nota(aluno.getCpf());
+                    totalAluno += notas[i][j];
+                } catch (IllegalArgumentException e) {
+                    notas[i][j] = Double.NaN;
+                    System.err.println("Erro ao obter nota para " + aluno.getNome() + " na avaliação " + aval.getNome() + ": " + e.getMessage());
+                }
+            }
+
+            totais[i] = limitarTotal(totalAluno, maxTotalAvaliacoes);
+        }
+
+        // Classificação por total decrescente, nome e matrícula, sem reordenar se a da turma estiver em dia
+        int[] ordem = t.rankingCom(totais).primeiros(nAlunos);
+        double somaTotais = 0; // Somados na ordem dos alunos na turma
+        for (double total : totais) {
+            somaTotais += total;
+        }
+
+        return new MediasTurma(t, alunos, avs, notas, totais, ordem, somaTotais / nAlunos);
+    }
+
+    // Soma dos valores das avaliações: o máximo que um aluno pode totalizar
+    static double valorMaximo(List<Avaliacao> avs) {
+        double maxTotalAvaliacoes = 0;
+        for (Avaliacao aval : avs) {
+            maxTotalAvaliacoes += aval.getValor();
+        }
+        return maxTotalAvaliacoes;
+    }
+
+    // Garante que a média do aluno não exceda o valor máximo das avaliações ou 100
+    static double limitarTotal(double totalAluno, double maxTotalAvaliacoes) {
+        if (totalAluno > maxTotalAvaliacoes) {
+            totalAluno = maxTotalAvaliacoes;
+        }
+        if (totalAluno > 100) {
+            totalAluno = 100;
+        }
+        return totalAluno;
+    }
+
+    public String getNomeTurma() {
+        return nomeTurma;
+    }
+
+    public int getAno() {
+        return ano;
+    }
+
+    public int getSemestre() {
+        return semestre;
+    }
+
+    // Alunos e avaliações como estavam na turma quando as médias foram calculadas
+    public List<Aluno> getAlunos() {
+        return alunos;
+    }
+
+    public List<Avaliacao> getAvs() {
+        return avs;
+    }
+
+    /**
+     * @return A nota do aluno na avaliação, ou NaN se ela não pôde ser obtida.
+     */
+    public double getNota(int aluno, int avaliacao) {
+        return notas[aluno][avaliacao];
+    }
+
+    // Total do aluno (soma das notas, limitada ao valor das avaliações e a 100)
+    public double getTotal(int aluno) {
+        return totais[aluno];
+    }
+
+    /**
+     * @param posicao Posição na classificação (0 é o primeiro).
+     * @return O índice do aluno (em getAlunos) que ocupa a posição: total decrescente, depois nome e matrícula.
+     */
+    public int getAlunoNaPosicao(int posicao) {
+        return ordem[posicao];
+    }
+
+    /**
+     * @return A média dos totais dos alunos, ou NaN se a turma não tem alunos.
+     */
+    public double getMediaTurma() {
+        return mediaTurma;
+    }
+}
@@ -1,11 +1,18 @@
 package Notas;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class Prova extends Avaliacao {
     private int nQuestoes;
     private List<AlunoProva> alunosProvas;
+    private Map<String, AlunoProva> alunosProvasPorCpf; // Índice mantido por adicionarAlunoProva
+    private volatile Supplier<List<AlunoProva>> cargaAdiada; // Notas ainda no arquivo de dados (ver adiarCarga)
 
     // Construtor da classe Prova
     public Prova(String nome, Data dtAplicacao, double valor, int nQuestoes) {
@@ -17,14 +24,50 @@ public class Prova extends Avaliacao {
         }
         this.nQuestoes = nQuestoes;
         this.alunosProvas = new ArrayList<>();
+        this.alunosProvasPorCpf = new HashMap<>();
     }
 
     public int getNQuestoes() {
         return nQuestoes;
     }
 
+    // Somente leitura: registros devem ser incluídos por adicionarAlunoProva para manter o índice por CPF
     public List<AlunoProva> getAlunosProvas() {
-        return alunosProvas;
+        garantirCarregada();
+        return Collections.unmodifiableList(alunosProvas);
+    }
+
+    /**
+     * Adia a leitura das notas: 'carga' só é chamada no primeiro acesso a elas (getAlunosProvas, nota,
+     * notasTotais ou adicionarAlunoProva). Usado por carregarSistema para não montar as notas de todas
+     * as provas do arquivo de uma vez.
+     */
+    public void adiarCarga(Supplier<List<AlunoProva>> carga) {
+        this.cargaAdiada = carga;
+    }
+
+    // true se as notas já estão em memória
+    public boolean isCarregada() {
+        return cargaAdiada == null;
+    }
+
+    // Executa a carga adiada uma única vez, mesmo com acessos simultâneos (ex.: gravação em segundo plano)
+    private void garantirCarregada() {
+        if (this.cargaAdiada == null) {
+            return;
+        }
+        synchronized (this) {
+            Supplier<List<AlunoProva>> carga = this.cargaAdiada;
+            if (carga == null) {
+                return;
+            }
+            for (AlunoProva ap : carga.get()) {
+                this.alunosProvas.add(ap);
+                this.alunosProvasPorCpf.put(ap.getAluno().getCpf(), ap);
+                ap.registrarProva(this);
+            }
+            this.cargaAdiada = null;
+        }
     }
 
     // Adiciona um aluno à prova
@@ -33,7 +76,25 @@ public class Prova extends Avaliacao {
         if (ap == null) {
             throw new IllegalArgumentException("Não é possível adicionar um registro de AlunoProva nulo.");
         }
+        garantirCarregada();
+        String cpf = ap.getAluno().getCpf();
+        if (this.alunosProvasPorCpf.containsKey(cpf)) {
+            throw new IllegalArgumentException("Aluno com CPF " + cpf + " já possui notas registradas nesta prova.");
+        }
+        ap.registrarProva(this);
         this.alunosProvas.add(ap);
+        this.alunosProvasPorCpf.put(cpf, ap);
+        notaAlterada(cpf);
+    }
+
+    // Retorna a nota total de todos os alunos da prova (CPF -> nota), em uma única passada e na ordem de inclusão
+    public Map<String, Double> notasTotais() {
+        garantirCarregada();
+        Map<String, Double> totais = new LinkedHashMap<>();
+        for (AlunoProva ap : alunosProvas) {
+            totais.put(ap.getAluno().getCpf(), ap.notaTotal());
+        }
+        return totais;
     }
 
     // Método sobrescrito para calcular a nota total do aluno nesta prova
@@ -44,10 +105,10 @@ public class Prova extends Avaliacao {
             throw new IllegalArgumentException("CPF não pode ser nulo ou vazio para buscar a nota.");
         }
 
-        for (AlunoProva ap : alunosProvas) {
-            if (ap.getAluno().getCpf().equals(cpf)) {
-                return ap.notaTotal();
-            }
+        garantirCarregada();
+        AlunoProva ap = alunosProvasPorCpf.get(cpf);
+        if (ap != null) {
+            return ap.notaTotal();
         }
         return 0;
     }
@@ -0,0 +1,276 @@
+package Notas;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Classificação dos alunos de uma turma (total decrescente, nome e matrícula crescentes, sem
+ * diferenciar maiúsculas), mantida em uma árvore de estatística de ordem: uma treap em que cada nó
+ * guarda o tamanho da sua subárvore.
+ *
+ * Quando a nota de um aluno muda, só o nó dele é retirado e reinserido, em O(log n), em vez de
+ * reordenar a turma. A posição de um aluno, o k-ésimo colocado e a quantidade de alunos abaixo de
+ * um total também custam O(log n); os k primeiros, O(k + log n).
+ *
+ * Alunos empatados em total, nome e matrícula ficam na ordem em que estão na turma, como na
+ * ordenação estável usada por MediasTurma. Não é sincronizada: pertence a uma Turma.
+ */
+class RankingTurma {
+    private static final class No {
+        final Aluno aluno;
+        final int indice;   // Posição do aluno na turma (desempate final)
+        double total;
+        final int prioridade;
+        int tamanho = 1;
+        No esquerda;
+        No direita;
+        No mesmoCpf;        // Outra ocorrência do mesmo CPF na turma, se houver
+
+        No(Aluno aluno, int indice, double total, int prioridade) {
+            this.aluno = aluno;
+            this.indice = indice;
+            this.total = total;
+            this.prioridade = prioridade;
+        }
+    }
+
+    private final Random prioridades = new Random(0x5EED); // Semente fixa: a mesma forma de árvore a cada execução
+    private final Map<String, No> porCpf = new HashMap<>();
+    private No raiz;
+
+    // *******************************************************
+    // ********************* ALTERAÇÕES **********************
+    // *******************************************************
+
+    /**
+     * Inclui o aluno que ocupa a posição 'indice' da turma, com o total já calculado.
+     */
+    void inserir(Aluno aluno, int indice, double total) {
+        No no = new No(aluno, indice, total, prioridades.nextInt());
+        No anterior = porCpf.put(aluno.getCpf(), no);
+        no.mesmoCpf = anterior;
+        raiz = inserir(raiz, no);
+    }
+
+    /**
+     * Reposiciona as ocorrências do CPF com o novo total.
+     * @return false se nenhum aluno da turma tem esse CPF.
+     */
+    boolean atualizar(String cpf, double total) {
+        No no = porCpf.get(cpf);
+        if (no == null) {
+            return false;
+        }
+        for (; no != null; no = no.mesmoCpf) {
+            if (Double.compare(no.total, total) != 0) {
+                raiz = remover(raiz, no);
+                no.total = total;
+                no.esquerda = null;
+                no.direita = null;
+                no.tamanho = 1;
+                raiz = inserir(raiz, no);
+            }
+        }
+        return true;
+    }
+
+    // *******************************************************
+    // ********************** CONSULTAS **********************
+    // *******************************************************
+
+    int tamanho() {
+        return tamanho(raiz);
+    }
+
+    /**
+     * @return O total registrado para o CPF, ou NaN se ele não está na turma.
+     */
+    double getTotal(String cpf) {
+        No no = porCpf.get(cpf);
+        return (no == null) ? Double.NaN : no.total;
+    }
+
+    /**
+     * @return A posição (0 é o primeiro) da primeira ocorrência do CPF na turma, ou -1 se ele não está nela.
+     */
+    int posicao(String cpf) {
+        No no = porCpf.get(cpf);
+        if (no == null) {
+            return -1;
+        }
+        int melhor = Integer.MAX_VALUE;
+        for (; no != null; no = no.mesmoCpf) {
+            melhor = Math.min(melhor, posicao(no));
+        }
+        return melhor;
+    }
+
+    private int posicao(No alvo) {
+        int antes = 0;
+        No atual = raiz;
+        while (atual != alvo) {
+            if (comparar(alvo, atual) < 0) {
+                atual = atual.esquerda;
+            } else {
+                antes += tamanho(atual.esquerda) + 1;
+                atual = atual.direita;
+            }
+        }
+        return antes + tamanho(alvo.esquerda);
+    }
+
+    /**
+     * @return O índice na turma do aluno que ocupa a posição (0 é o primeiro).
+     */
+    int indiceNaPosicao(int posicao) {
+        if (posicao < 0 || posicao >= tamanho()) {
+            throw new IllegalArgumentException("Posição fora da classificação: " + posicao + ".");
+        }
+        No atual = raiz;
+        while (true) {
+            int esquerda = tamanho(atual.esquerda);
+            if (posicao < esquerda) {
+                atual = atual.esquerda;
+            } else if (posicao == esquerda) {
+                return atual.indice;
+            } else {
+                posicao -= esquerda + 1;
+                atual = atual.direita;
+            }
+        }
+    }
+
+    /**
+     * @return Os índices na turma dos 'k' primeiros colocados (ou de todos, se houver menos), em ordem.
+     */
+    int[] primeiros(int k) {
+        int quantidade = Math.max(0, Math.min(k, tamanho()));
+        int[] indices = new int[quantidade];
+        List<No> pilha = new ArrayList<>();
+        No atual = raiz;
+        int n = 0;
+        while (n < quantidade) {
+            while (atual != null) {
+                pilha.add(atual);
+                atual = atual.esquerda;
+            }
+            No visitado = pilha.remove(pilha.size() - 1);
+            indices[n++] = visitado.indice;
+            atual = visitado.direita;
+        }
+        return indices;
+    }
+
+    /**
+     * @return Quantos alunos têm total estritamente menor que 'total'.
+     */
+    int contarAbaixo(double total) {
+        int naoAbaixo = 0;
+        No atual = raiz;
+        while (atual != null) {
+            if (Double.compare(atual.total, total) >= 0) {
+                naoAbaixo += tamanho(atual.esquerda) + 1;
+                atual = atual.direita;
+            } else {
+                atual = atual.esquerda;
+            }
+        }
+        return tamanho() - naoAbaixo;
+    }
+
+    // *******************************************************
+    // *********************** TREAP *************************
+    // *******************************************************
+
+    // Mesma ordem de MediasTurma, com a posição na turma como último critério
+    private static int comparar(No a, No b) {
+        int compareNota = Double.compare(b.total, a.total);
+        if (compareNota != 0) {
+            return compareNota;
+        }
+        int compareNome = a.aluno.getNome().compareToIgnoreCase(b.aluno.getNome());
+        if (compareNome != 0) {
+            return compareNome;
+        }
+        int compareMatricula = a.aluno.getMat().compareToIgnoreCase(b.aluno.getMat());
+        if (compareMatricula != 0) {
+            return compareMatricula;
+        }
+        return Integer.compare(a.indice, b.indice);
+    }
+
+    private static int tamanho(No no) {
+        return (no == null) ? 0 : no.tamanho;
+    }
+
+    private static No ajustar(No no) {
+        no.tamanho = tamanho(no.esquerda) + tamanho(no.direita) + 1;
+        return no;
+    }
+
+    private static No inserir(No arvore, No no) {
+        if (arvore == null) {
+            return no;
+        }
+        if (no.prioridade > arvore.prioridade) {
+            No[] partes = dividir(arvore, no);
+            no.esquerda = partes[0];
+            no.direita = partes[1];
+            return ajustar(no);
+        }
+        if (comparar(no, arvore) < 0) {
+            arvore.esquerda = inserir(arvore.esquerda, no);
+        } else {
+            arvore.direita = inserir(arvore.direita, no);
+        }
+        return ajustar(arvore);
+    }
+
+    // Separa a árvore nos nós que vêm antes de 'chave' e nos que vêm depois
+    private static No[] dividir(No arvore, No chave) {
+        if (arvore == null) {
+            return new No[2];
+        }
+        if (comparar(arvore, chave) < 0) {
+            No[] partes = dividir(arvore.direita, chave);
+            arvore.direita = partes[0];
+            partes[0] = ajustar(arvore);
+            return partes;
+        }
+        No[] partes = dividir(arvore.esquerda, chave);
+        arvore.esquerda = partes[1];
+        partes[1] = ajustar(arvore);
+        return partes;
+    }
+
+    private static No remover(No arvore, No no) {
+        if (arvore == no) {
+            return unir(no.esquerda, no.direita);
+        }
+        if (comparar(no, arvore) < 0) {
+            arvore.esquerda = remover(arvore.esquerda, no);
+        } else {
+            arvore.direita = remover(arvore.direita, no);
+        }
+        return ajustar(arvore);
+    }
+
+    // Une duas árvores em que todos os nós de 'antes' vêm antes dos de 'depois'
+    private static No unir(No antes, No depois) {
+        if (antes == null) {
+            return depois;
+        }
+        if (depois == null) {
+            return antes;
+        }
+        if (antes.prioridade > depois.prioridade) {
+            antes.direita = unir(antes.direita, depois);
+            return ajustar(antes);
+        }
+        depois.esquerda = unir(antes, depois.esquerda);
+        return ajustar(depois);
+    }
+}
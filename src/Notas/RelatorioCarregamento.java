@@ -0,0 +1,145 @@
+package Notas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Problemas encontrados e tempos medidos durante um carregamento (carregarSistema, a leitura de um
+ * semestre arquivado, de notas adiadas ou de uma ConsultaTurma).
+ *
+ * Em vez de imprimir cada problema recuperável assim que ele aparece, o carregamento só o conta por
+ * categoria e guarda os primeiros exemplos de cada uma; a mensagem só é montada (Supplier) se ainda
+ * couber entre os exemplos. No final, relatar imprime um resumo de tamanho limitado em System.err.
+ *
+ * Os tempos são acumulados por etapa. TURMAS inclui PROVAS e TRABALHOS, que são medidos também à
+ * parte; no carregamento paralelo, os tempos das tarefas são somados (tempo de processamento, não de relógio).
+ */
+public class RelatorioCarregamento {
+    public static final int MAX_EXEMPLOS_PADRAO = 5;
+
+    public enum Categoria {
+        REGISTRO_INCOMPLETO("Dados incompletos"),
+        NUMERO_INVALIDO("Número em formato inválido"),
+        PROFESSOR_NAO_ENCONTRADO("Professor não encontrado"),
+        ALUNO_NAO_ENCONTRADO("Aluno não encontrado"),
+        CADASTRO_RECUSADO("Cadastro recusado pelo sistema"),
+        TIPO_DESCONHECIDO("Tag ou tipo de avaliação desconhecido");
+
+        private final String descricao;
+
+        Categoria(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+
+    public enum Etapa {
+        VERIFICACAO, PROFESSORES, ALUNOS, TURMAS, PROVAS, TRABALHOS, DIARIO
+    }
+
+    private final String fileName;
+    private final int maxExemplos;
+    private final Map<Categoria, Integer> quantidades = new EnumMap<>(Categoria.class);
+    private final Map<Categoria, List<String>> exemplos = new EnumMap<>(Categoria.class);
+    private final Map<Etapa, LongAdder> tempos = new EnumMap<>(Etapa.class);
+
+    public RelatorioCarregamento(String fileName) {
+        this(fileName, MAX_EXEMPLOS_PADRAO);
+    }
+
+    public RelatorioCarregamento(String fileName, int maxExemplos) {
+        if (maxExemplos < 0) {
+            throw new IllegalArgumentException("O número de exemplos por categoria não pode ser negativo.");
+        }
+        this.fileName = fileName;
+        this.maxExemplos = maxExemplos;
+        for (Etapa etapa : Etapa.values()) {
+            tempos.put(etapa, new LongAdder()); // Preenchido antes do uso: as tarefas paralelas só leem o mapa
+        }
+    }
+
+    /**
+     * Registra um problema recuperável.
+     * @param linha Linha do arquivo em que ele foi percebido (0 se não se aplica).
+     * @param mensagem Descrição do problema; só é avaliada se ainda couber entre os exemplos.
+     */
+    public synchronized void registrar(Categoria categoria, int linha, Supplier<String> mensagem) {
+        int quantidade = quantidades.merge(categoria, 1, Integer::sum);
+        if (quantidade <= maxExemplos) {
+            String texto = mensagem.get();
+            exemplos.computeIfAbsent(categoria, c -> new ArrayList<>()).add((linha > 0) ? "linha " + linha + ": " + texto : texto);
+        }
+    }
+
+    public void registrarTempo(Etapa etapa, long nanos) {
+        tempos.get(etapa).add(nanos);
+    }
+
+    public synchronized int getTotal() {
+        int total = 0;
+        for (int quantidade : quantidades.values()) {
+            total += quantidade;
+        }
+        return total;
+    }
+
+    public synchronized int getQuantidade(Categoria categoria) {
+        return quantidades.getOrDefault(categoria, 0);
+    }
+
+    public synchronized List<String> getExemplos(Categoria categoria) {
+        return Collections.unmodifiableList(new ArrayList<>(exemplos.getOrDefault(categoria, Collections.emptyList())));
+    }
+
+    public long getTempoNanos(Etapa etapa) {
+        return tempos.get(etapa).sum();
+    }
+
+    /**
+     * @return Os tempos de cada etapa em milissegundos, em uma linha (ex.: "PROFESSORES=0.4ms ALUNOS=12.1ms ...").
+     */
+    public String resumoTempos() {
+        StringBuilder sb = new StringBuilder();
+        for (Etapa etapa : Etapa.values()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(etapa).append('=').append(String.format("%.1f", getTempoNanos(etapa) / 1e6)).append("ms");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Imprime em System.err, se houve problemas, a quantidade de cada categoria e os seus primeiros exemplos.
+     */
+    public synchronized void relatar() {
+        int total = getTotal();
+        if (total == 0) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Problemas ao carregar '").append(fileName).append("': ").append(total).append(" ocorrência(s).");
+        for (Categoria categoria : Categoria.values()) {
+            int quantidade = getQuantidade(categoria);
+            if (quantidade == 0) {
+                continue;
+            }
+            sb.append(System.lineSeparator()).append("  ").append(categoria.getDescricao()).append(": ").append(quantidade);
+            for (String exemplo : exemplos.getOrDefault(categoria, Collections.emptyList())) {
+                sb.append(System.lineSeparator()).append("    - ").append(exemplo);
+            }
+            if (quantidade > maxExemplos) {
+                sb.append(System.lineSeparator()).append("    (mais ").append(quantidade - maxExemplos).append(" não exibida(s))");
+            }
+        }
+        System.err.println(sb);
+    }
+}
@@ -0,0 +1,210 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Exibição das médias de uma turma (MediasTurma) no formato de Turma.medias, em qualquer Appendable
+ * (System.out, um StringBuilder, um Writer). As quebras de linha são as do sistema.
+ *
+ * Cada linha é montada em um buffer de caracteres reaproveitado e entregue à saída de uma só vez;
+ * as notas são formatadas direto no buffer, com o mesmo resultado de String.format("%.1f") e
+ * "%.2f" na localidade padrão, sem criar um Formatter por nota. Uma instância pode exibir várias
+ * turmas (ex.: uma listagem inteira), mas não deve ser usada por duas threads ao mesmo tempo.
+ */
+public class RelatorioMedias {
+    private static final String QUEBRA = System.lineSeparator();
+    private static final int TAMANHO_BUFFER_CONSOLE = 1 << 16;
+    private static final double[] ESCALAS = {1, 10, 100, 1000};
+    // Acima disso (ou perto de ...,5 na última casa) o erro do double pode mudar o arredondamento: usa String.format
+    private static final double LIMITE_RAPIDO = 1e9;
+    private static final double TOLERANCIA_EMPATE = 1e-6;
+
+    private final Appendable saida;
+    private final Writer saidaWriter;         // 'saida', se for um Writer: recebe o buffer sem cópia
+    private final StringBuilder saidaBuilder; // 'saida', se for um StringBuilder
+    private final char separadorDecimal;
+    private final char zero;
+    private char[] linha = new char[128];
+    private int tamanho;
+    private CharBuffer visaoLinha; // 'linha' como CharSequence, para os demais Appendables
+
+    public RelatorioMedias(Appendable saida) {
+        if (saida == null) {
+            throw new IllegalArgumentException("A saída do relatório não pode ser nula.");
+        }
+        this.saida = saida;
+        this.saidaWriter = (saida instanceof Writer) ? (Writer) saida : null;
+        this.saidaBuilder = (saida instanceof StringBuilder) ? (StringBuilder) saida : null;
+        // Os mesmos símbolos que String.format usa na localidade padrão
+        DecimalFormatSymbols simbolos = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.separadorDecimal = simbolos.getDecimalSeparator();
+        this.zero = simbolos.getZeroDigit();
+    }
+
+    public static void escrever(MediasTurma medias, Appendable saida) throws IOException {
+        new RelatorioMedias(saida).escrever(medias);
+    }
+
+    /**
+     * Abre um Writer com buffer sobre System.out (a saída atual, com a sua codificação), para uma
+     * listagem inteira ser escrita com poucas chamadas ao console. Deve receber flush no final;
+     * fechá-lo não fecha System.out.
+     */
+    public static Writer console() {
+        return new BufferedWriter(new SaidaPadrao(), TAMANHO_BUFFER_CONSOLE);
+    }
+
+    public void escrever(MediasTurma medias) throws IOException {
+        texto("Médias da Turma ");
+        texto(medias.getNomeTurma());
+        caractere('(');
+        inteiro(medias.getAno());
+        caractere('/');
+        inteiro(medias.getSemestre());
+        texto("):");
+        fimLinha();
+
+        int nAlunos = medias.getAlunos().size();
+        if (nAlunos == 0) {
+            texto("Não há alunos nesta turma para calcular as médias.");
+            fimLinha();
+            return;
+        }
+
+        int nAvs = medias.getAvs().size();
+        for (int posicao = 0; posicao < nAlunos; posicao++) {
+            int i = medias.getAlunoNaPosicao(posicao);
+            texto(medias.getAlunos().get(i).toString());
+            texto(": ");
+            for (int j = 0; j < nAvs; j++) {
+                double nota = medias.getNota(i, j);
+                if (Double.isNaN(nota)) {
+                    texto("0 (Erro) "); // Exibe 0 (Erro) se a nota não pôde ser obtida
+                } else {
+                    decimal(nota, 1);
+                    caractere(' ');
+                }
+            }
+            texto("= ");
+            decimal(medias.getTotal(i), 2);
+            fimLinha();
+        }
+
+        texto("Média da turma: ");
+        decimal(medias.getMediaTurma(), 2);
+        fimLinha();
+    }
+
+    // *******************************************************
+    // ******************* BUFFER DE LINHA *******************
+    // *******************************************************
+
+    private void garantirEspaco(int extra) {
+        if (tamanho + extra > linha.length) {
+            char[] maior = new char[Math.max(linha.length * 2, tamanho + extra)];
+            System.arraycopy(linha, 0, maior, 0, tamanho);
+            linha = maior;
+            visaoLinha = null;
+        }
+    }
+
+    private void caractere(char c) {
+        garantirEspaco(1);
+        linha[tamanho++] = c;
+    }
+
+    private void texto(String s) {
+        garantirEspaco(s.length());
+        s.getChars(0, s.length(), linha, tamanho);
+        tamanho += s.length();
+    }
+
+    private void inteiro(long n) {
+        if (n < 0) {
+            caractere('-');
+            n = -n;
+        }
+        int digitos = 1;
+        for (long resto = n / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        garantirEspaco(digitos);
+        for (int k = tamanho + digitos - 1; k >= tamanho; k--) {
+            linha[k] = (char) (zero + (int) (n % 10));
+            n /= 10;
+        }
+        tamanho += digitos;
+    }
+
+    /**
+     * Escreve 'valor' com 'casas' casas decimais, como String.format("%." + casas + "f"): arredonda
+     * a metade para cima e mantém o sinal de negativos que arredondam para zero ("-0.0").
+     */
+    private void decimal(double valor, int casas) {
+        double escalado = Math.abs(valor) * ESCALAS[casas];
+        double parteInteira = Math.floor(escalado);
+        double fracao = escalado - parteInteira;
+        // NaN e infinitos também falham o primeiro teste
+        if (!(escalado < LIMITE_RAPIDO) || Math.abs(fracao - 0.5) < TOLERANCIA_EMPATE) {
+            texto(String.format("%." + casas + "f", valor));
+            return;
+        }
+        long n = (long) parteInteira + ((fracao > 0.5) ? 1 : 0);
+        if (Double.doubleToRawLongBits(valor) < 0) {
+            caractere('-');
+        }
+        long escala = (long) ESCALAS[casas];
+        inteiro(n / escala);
+        caractere(separadorDecimal);
+        garantirEspaco(casas);
+        long decimais = n % escala;
+        for (int k = tamanho + casas - 1; k >= tamanho; k--) {
+            linha[k] = (char) (zero + (int) (decimais % 10));
+            decimais /= 10;
+        }
+        tamanho += casas;
+    }
+
+    private void fimLinha() throws IOException {
+        texto(QUEBRA);
+        if (saidaWriter != null) {
+            saidaWriter.write(linha, 0, tamanho);
+        } else if (saidaBuilder != null) {
+            saidaBuilder.append(linha, 0, tamanho);
+        } else {
+            if (visaoLinha == null) {
+                visaoLinha = CharBuffer.wrap(linha);
+            }
+            saida.append(visaoLinha, 0, tamanho);
+        }
+        tamanho = 0;
+    }
+
+    // Writer sobre System.out, consultado a cada escrita para respeitar System.setOut
+    private static class SaidaPadrao extends Writer {
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            System.out.print(String.valueOf(cbuf, off, len));
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            System.out.print(str.substring(off, off + len));
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+}
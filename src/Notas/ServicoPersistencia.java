@@ -0,0 +1,130 @@
+package Notas;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serviço de persistência em segundo plano.
+ * Recebe avisos de alteração do Sistema (novoProf/novoAluno/novaTurma) e agrupa rajadas de cadastros
+ * em uma única gravação no diário, feita no máximo 'intervaloMs' depois do primeiro aviso ou assim que
+ * 'maxOperacoes' cadastros estiverem pendentes. Após cada gravação, compacta o diário em um snapshot
+ * completo quando necessário. Assim o menu interativo (ou o input.txt) nunca espera pelo disco.
+ *
+ * fechar() grava tudo o que estiver pendente; um gancho de desligamento da JVM garante o mesmo
+ * caso o programa termine sem chamar fechar().
+ */
+public class ServicoPersistencia implements AutoCloseable {
+    private final Sistema sistema;
+    private final String fileName;
+    private final long intervaloMs;
+    private final int maxOperacoes;
+    private final ScheduledExecutorService executor;
+    private final Thread ganchoDesligamento;
+
+    private ScheduledFuture<?> gravacaoAgendada; // Gravação ainda não iniciada, se houver
+    private boolean fechado;
+
+    /**
+     * Cria o serviço e o associa ao sistema.
+     * @param sistema O sistema cujos cadastros serão gravados.
+     * @param fileName O arquivo de snapshot (o diário é derivado dele).
+     * @param intervaloMs Tempo máximo, em milissegundos, entre um cadastro e sua gravação.
+     * @param maxOperacoes Quantidade de cadastros pendentes que dispara uma gravação imediata.
+     */
+    public ServicoPersistencia(Sistema sistema, String fileName, long intervaloMs, int maxOperacoes) {
+        if (sistema == null || fileName == null) {
+            throw new IllegalArgumentException("Sistema e arquivo de dados são obrigatórios para o serviço de persistência.");
+        }
+        if (intervaloMs <= 0 || maxOperacoes <= 0) {
+            throw new IllegalArgumentException("O intervalo e o número máximo de operações devem ser maiores que zero.");
+        }
+        this.sistema = sistema;
+        this.fileName = fileName;
+        this.intervaloMs = intervaloMs;
+        this.maxOperacoes = maxOperacoes;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "persistencia-sistema");
+            t.setDaemon(true); // O gancho de desligamento cuida da gravação final
+            return t;
+        });
+        this.ganchoDesligamento = new Thread(this::fechar, "persistencia-desligamento");
+        Runtime.getRuntime().addShutdownHook(this.ganchoDesligamento);
+        sistema.setServicoPersistencia(this);
+    }
+
+    /**
+     * Avisa que há cadastros pendentes. Não faz I/O: apenas agenda a gravação.
+     * @param pendentes Quantidade de cadastros que aguardam gravação.
+     */
+    public synchronized void notificarAlteracao(int pendentes) {
+        if (this.fechado) {
+            return; // fechar() grava o que restar
+        }
+        if (pendentes >= this.maxOperacoes) {
+            agendar(0);
+        } else if (this.gravacaoAgendada == null) {
+            agendar(this.intervaloMs);
+        }
+    }
+
+    private void agendar(long atrasoMs) {
+        if (this.gravacaoAgendada != null) {
+            if (atrasoMs > 0 || this.gravacaoAgendada.getDelay(TimeUnit.MILLISECONDS) <= 0) {
+                return; // Já existe uma gravação agendada que vai levar estes cadastros junto
+            }
+            this.gravacaoAgendada.cancel(false);
+        }
+        this.gravacaoAgendada = this.executor.schedule(this::gravar, atrasoMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Executado na thread de persistência
+    private void gravar() {
+        synchronized (this) {
+            this.gravacaoAgendada = null;
+        }
+        this.sistema.gravarPendencias();
+        try {
+            this.sistema.compactarDiario(this.fileName);
+        } catch (IOException e) {
+            System.err.println("Erro ao compactar o diário em '" + this.fileName + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encerra a thread de persistência e grava, na thread chamadora, tudo o que ainda estiver pendente.
+     * Pode ser chamado mais de uma vez.
+     */
+    public void fechar() {
+        synchronized (this) {
+            if (this.fechado) {
+                return;
+            }
+            this.fechado = true;
+        }
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("A gravação em segundo plano não terminou a tempo; gravando pendências agora.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.sistema.gravarPendencias();
+        this.sistema.setServicoPersistencia(null);
+        if (Thread.currentThread() != this.ganchoDesligamento) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.ganchoDesligamento);
+            } catch (IllegalStateException e) {
+                // A JVM já está desligando; o gancho vai encontrar o serviço fechado
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        fechar();
+    }
+}
@@ -3,37 +3,119 @@ package Notas;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class Sistema {
     private List<Professor> profs;
     private List<Aluno> alunos;
-    private List<Turma> turmas;
+    private List<Turma> turmas; // Na ordem de cadastro, que é a do snapshot
+    private TurmasOrdenadas turmasOrdenadas; // As mesmas turmas, na ordem da listagem
+
+    // Índices mantidos por novoProf/novoAluno/resetSistema para buscas em O(1)
+    private Map<String, Pessoa> pessoasPorCpf;
+    private Map<String, Aluno> alunosPorMatricula;
+    private Map<String, Aluno> copiaAlunosPorMatricula; // Cópia imutável para as cargas adiadas; null se desatualizada
+
+    // Diário de alterações: cada cadastro é anexado aqui em vez de regravar o snapshot inteiro.
+    public static final int LIMITE_REGISTROS_DIARIO = 50;
+    private String arquivoDiario; // null enquanto o diário estiver desativado
+    private int registrosNoDiario;
+    private List<Object> pendentesDiario;             // Cadastros ainda não anexados ao diário
+    private ServicoPersistencia servicoPersistencia;  // Se definido, grava as pendências em segundo plano
+    private final Object travaArquivos = new Object(); // Serializa gravações de diário e snapshot
+
+    private FormatoSnapshot formatoSnapshot = FormatoSnapshot.TEXTO;
+    private final SnapshotTexto snapshotTexto = new SnapshotTexto(); // Acessado apenas sob travaArquivos
+    private int geracao; // Incrementada por resetSistema: os objetos anteriores deixam de valer para o snapshot
+    private FonteCarregamento fonteCarregamento; // Snapshot de onde saem as notas adiadas (null se não houver)
+    private final ArquivoMorto arquivoMorto = new ArquivoMorto(this); // Semestres encerrados, fora de 'turmas'
+    private RelatorioCarregamento relatorioCarregamento; // Problemas e tempos do último carregarSistema
 
     public Sistema() {
         this.profs = new ArrayList<>();
         this.alunos = new ArrayList<>();
         this.turmas = new ArrayList<>();
+        this.turmasOrdenadas = new TurmasOrdenadas();
+        this.pessoasPorCpf = new HashMap<>();
+        this.alunosPorMatricula = new HashMap<>();
+        this.pendentesDiario = new ArrayList<>();
     }
 
+    // As listas são devolvidas somente para leitura: cadastros devem passar por novoProf/novoAluno
+    // para manter os índices por CPF e matrícula consistentes.
     public List<Professor> getProfs() {
-        return profs;
+        return Collections.unmodifiableList(profs);
     }
 
     public List<Aluno> getAlunos() {
-        return alunos;
+        return Collections.unmodifiableList(alunos);
+    }
+
+    /**
+     * @return Todas as turmas: as em memória, na ordem de cadastro, seguidas das do arquivo morto, do
+     *         semestre mais recente para o mais antigo. Lê todos os semestres arquivados que não estiverem
+     *         em memória; para consultas frequentes, use getTurmasResidentes ou getTurmasSemestre.
+     */
+    public synchronized List<Turma> getTurmas() {
+        List<Turma> todas = new ArrayList<>(this.turmas);
+        this.arquivoMorto.adicionarTodas(todas);
+        return Collections.unmodifiableList(todas);
+    }
+
+    // Turmas em memória (as dos dois semestres mais recentes, depois de salvar); não lê o arquivo morto.
+    // Somente leitura: cadastros passam por novaTurma para manter a ordem da listagem (TurmasOrdenadas).
+    public List<Turma> getTurmasResidentes() {
+        return Collections.unmodifiableList(turmas);
+    }
+
+    /**
+     * @return Os problemas e os tempos por etapa do último carregarSistema (null se ainda não houve um).
+     */
+    public synchronized RelatorioCarregamento getRelatorioCarregamento() {
+        return relatorioCarregamento;
+    }
+
+    public FormatoSnapshot getFormatoSnapshot() {
+        return formatoSnapshot;
+    }
+
+    public void setFormatoSnapshot(FormatoSnapshot formatoSnapshot) {
+        if (formatoSnapshot == null) {
+            throw new IllegalArgumentException("O formato do snapshot não pode ser nulo.");
+        }
+        this.formatoSnapshot = formatoSnapshot;
     }
 
-    public List<Turma> getTurmas() {
-        return turmas;
+    public synchronized void setServicoPersistencia(ServicoPersistencia servicoPersistencia) {
+        this.servicoPersistencia = servicoPersistencia;
     }
 
-    public void resetSistema() {
+    public synchronized void resetSistema() {
         this.profs.clear();
         this.alunos.clear();
         this.turmas.clear();
+        this.turmasOrdenadas.limpar();
+        this.pessoasPorCpf.clear();
+        this.alunosPorMatricula.clear();
+        this.copiaAlunosPorMatricula = null;
+        this.arquivoDiario = null;
+        this.registrosNoDiario = 0;
+        this.pendentesDiario.clear();
+        this.geracao++;
+        this.arquivoMorto.limpar();
+        if (this.fonteCarregamento != null) {
+            try {
+                this.fonteCarregamento.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar o snapshot carregado anteriormente: " + e.getMessage());
+            }
+            this.fonteCarregamento = null;
+        }
         System.out.println("Sistema resetado para carregar novos dados.");
     }
 
@@ -44,20 +126,10 @@ public class Sistema {
         if (cpf == null || cpf.trim().isEmpty()) {
             return false;
         }
-        for (Professor p : this.profs) {
-            if (p.getCpf().equals(cpf)) {
-                return true;
-            }
-        }
-        for (Aluno a : this.alunos) {
-            if (a.getCpf().equals(cpf)) {
-                return true;
-            }
-        }
-        return false;
+        return this.pessoasPorCpf.containsKey(cpf);
     }
 
-    public void novoProf(Professor p) {
+    public synchronized void novoProf(Professor p) {
         if (p == null) {
             throw new IllegalArgumentException("Não é possível adicionar um professor nulo ao sistema.");
         }
@@ -65,16 +137,17 @@ public class Sistema {
             throw new IllegalArgumentException("Já existe uma pessoa (professor ou aluno) cadastrada com este CPF: " + p.getCpf());
         }
         this.profs.add(p);
+        this.pessoasPorCpf.put(p.getCpf(), p);
+        registrarNoDiario(p);
     }
 
     public Professor encontrarProfessor(String cpf) {
         if (cpf == null || cpf.trim().isEmpty()) {
             return null;
         }
-        for (Professor p : this.profs) {
-            if (p.getCpf().equals(cpf)) {
-                return p;
-            }
+        Pessoa p = this.pessoasPorCpf.get(cpf);
+        if (p instanceof Professor) {
+            return (Professor) p;
         }
         return null;
     }
@@ -94,7 +167,7 @@ public class Sistema {
     // **************** MÉTODOS DE ALUNOS ********************
     // *******************************************************
 
-    public void novoAluno(Aluno a) {
+    public synchronized void novoAluno(Aluno a) {
         if (a == null) {
             throw new IllegalArgumentException("Não é possível adicionar um aluno nulo ao sistema.");
         }
@@ -105,18 +178,17 @@ public class Sistema {
             throw new IllegalArgumentException("Já existe uma pessoa (professor ou aluno) cadastrada com este CPF: " + a.getCpf());
         }
         this.alunos.add(a);
+        this.pessoasPorCpf.put(a.getCpf(), a);
+        this.alunosPorMatricula.put(a.getMat(), a);
+        this.copiaAlunosPorMatricula = null;
+        registrarNoDiario(a);
     }
 
     public Aluno encontrarAluno(String matricula) {
         if (matricula == null || matricula.trim().isEmpty()) {
             return null;
         }
-        for (Aluno a : this.alunos) {
-            if (a.getMat().equals(matricula)) {
-                return a;
-            }
-        }
-        return null;
+        return this.alunosPorMatricula.get(matricula);
     }
 
     public void listarAlunos() {
@@ -134,61 +206,138 @@ public class Sistema {
     // **************** MÉTODOS DE TURMAS ********************
     // *******************************************************
 
-    public void novaTurma(Turma t) {
+    public synchronized void novaTurma(Turma t) {
         if (t == null) {
             throw new IllegalArgumentException("Não é possível adicionar uma turma nula ao sistema.");
         }
-        for (Turma existingTurma : this.turmas) {
+        // Turmas de um semestre arquivado também contam (o semestre é lido do arquivo morto, se preciso)
+        if (this.turmasOrdenadas.contem(t)
+                || contemTurma(this.arquivoMorto.getTurmas(t.getAno(), t.getSemestre()), t)) {
+            throw new IllegalArgumentException("Já existe uma turma cadastrada com o nome '" + t.getNome() +
+                    "' para o ano " + t.getAno() + " e semestre " + t.getSemestre() + ".");
+        }
+        this.turmas.add(t);
+        this.turmasOrdenadas.adicionar(t);
+        t.vincularAvaliacoes();
+        registrarNoDiario(t);
+    }
+
+    private static boolean contemTurma(List<Turma> turmas, Turma t) {
+        for (Turma existingTurma : turmas) {
             if (existingTurma.getNome().equalsIgnoreCase(t.getNome()) &&
                     existingTurma.getAno() == t.getAno() &&
                     existingTurma.getSemestre() == t.getSemestre()) {
-                throw new IllegalArgumentException("Já existe uma turma cadastrada com o nome '" + t.getNome() +
-                        "' para o ano " + t.getAno() + " e semestre " + t.getSemestre() + ".");
+                return true;
             }
         }
-        this.turmas.add(t);
+        return false;
+    }
+
+    /**
+     * @return As turmas do semestre, incluindo as do arquivo morto (lidas do disco se necessário), na
+     *         ordem da listagem. As arquivadas e as em memória já estão ordenadas e são só intercaladas.
+     */
+    public synchronized List<Turma> getTurmasSemestre(int ano, int semestre) {
+        return TurmasOrdenadas.intercalar(this.arquivoMorto.getTurmas(ano, semestre), this.turmasOrdenadas.doSemestre(ano, semestre));
+    }
+
+    /**
+     * @return Uma cópia das turmas em memória na ordem da listagem: semestre e ano decrescentes,
+     *         depois nome da turma e nome do professor.
+     */
+    public synchronized List<Turma> getTurmasOrdenadas() {
+        return new ArrayList<>(this.turmasOrdenadas.getTurmas());
+    }
+
+    // Semestres encerrados guardados fora do snapshot principal, do mais recente para o mais antigo
+    public synchronized List<String> getSemestresArquivados() {
+        return this.arquivoMorto.getSemestres();
+    }
+
+    /**
+     * Limita a memória usada pelos semestres arquivados lidos sob demanda.
+     * @param bytes Orçamento, estimado pelo tamanho dos arquivos (padrão: ArquivoMorto.ORCAMENTO_PADRAO).
+     */
+    public synchronized void setOrcamentoArquivoMorto(long bytes) {
+        this.arquivoMorto.setOrcamento(bytes);
+    }
+
+    private static boolean paraleloListagem(List<Turma> turmas) {
+        return turmas.size() > 1 && Runtime.getRuntime().availableProcessors() > 1;
     }
 
+    // Submete Turma.relatorioMedias de cada turma ao ForkJoinPool comum
+    private static List<Future<String>> montarRelatorios(List<Turma> turmas) {
+        List<Future<String>> relatorios = new ArrayList<>(turmas.size());
+        for (Turma t : turmas) {
+            relatorios.add(ForkJoinPool.commonPool().submit(t::relatorioMedias));
+        }
+        return relatorios;
+    }
+
+    /**
+     * Lista as turmas em memória. Os semestres arquivados só são citados: suas turmas são lidas do
+     * disco apenas quando pedidas, um semestre por vez (listarTurmasSemestre).
+     */
     public void listarTurmas() {
-        if (!this.turmas.isEmpty()) {
-            System.out.println("Turmas cadastradas:");
-
-            List<Turma> turmasOrdenadas = new ArrayList<>(this.turmas);
-            Collections.sort(turmasOrdenadas, new Comparator<Turma>() {
-                @Override
-                public int compare(Turma t1, Turma t2) {
-                    int compareSemestre = Integer.compare(t2.getSemestre(), t1.getSemestre());
-                    if (compareSemestre != 0) {
-                        return compareSemestre;
-                    }
-                    int compareAno = Integer.compare(t2.getAno(), t1.getAno());
-                    if (compareAno != 0) {
-                        return compareAno;
-                    }
-                    int compareNomeDisciplina = t1.getNome().compareToIgnoreCase(t2.getNome());
-                    if (compareNomeDisciplina != 0) {
-                        return compareNomeDisciplina;
-                    }
-                    return t1.getProf().getNome().compareToIgnoreCase(t2.getProf().getNome());
-                }
-            });
+        listar(getTurmasOrdenadas(), "Turmas cadastradas:", "Nenhuma turma cadastrada."); // Já na ordem da listagem
+        List<String> arquivados = getSemestresArquivados();
+        if (!arquivados.isEmpty()) {
+            System.out.println("Semestres arquivados (listados um por vez, sob demanda): " + String.join(", ", arquivados));
+        }
+    }
 
-            for (Turma t : turmasOrdenadas) {
-                System.out.println("* " + t.getNome() + " (" + t.getAno() + "/" + t.getSemestre() + ") - Prof: " + t.getProf().getNome());
-            }
+    // Lista as turmas de um semestre, arquivado ou não, lendo-o do arquivo morto se necessário
+    public void listarTurmasSemestre(int ano, int semestre) {
+        listar(getTurmasSemestre(ano, semestre), "Turmas cadastradas em " + ano + "/" + semestre + ":",
+                "Nenhuma turma cadastrada em " + ano + "/" + semestre + ".");
+    }
 
-            System.out.println();
-            for (Turma t : turmasOrdenadas) {
-                try {
-                    t.medias();
-                } catch (Exception e) {
-                    System.err.println("Erro ao calcular médias da turma " + t.getNome() + ": " + e.getMessage());
+    // Imprime as turmas (já na ordem da listagem) e as médias de cada uma
+    private static void listar(List<Turma> turmasOrdenadas, String titulo, String nenhuma) {
+        if (!turmasOrdenadas.isEmpty()) {
+            System.out.println(titulo);
+
+            // Toda a listagem passa por um único Writer com buffer, esvaziado antes de cada erro e no final
+            Writer saida = RelatorioMedias.console();
+            try {
+                for (Turma t : turmasOrdenadas) {
+                    saida.write("* " + t.getNome() + " (" + t.getAno() + "/" + t.getSemestre() + ") - Prof: " + t.getProf().getNome());
+                    saida.write(System.lineSeparator());
                 }
-                System.out.println();
+                saida.write(System.lineSeparator());
+
+                // Com mais de um processador, os relatórios são montados em paralelo e escritos na ordem da listagem;
+                // com um só, cada turma é escrita direto no Writer
+                List<Future<String>> relatorios = paraleloListagem(turmasOrdenadas) ? montarRelatorios(turmasOrdenadas) : null;
+                RelatorioMedias relatorio = new RelatorioMedias(saida);
+                for (int i = 0; i < turmasOrdenadas.size(); i++) {
+                    Turma t = turmasOrdenadas.get(i);
+                    try {
+                        if (relatorios != null) {
+                            saida.write(relatorios.get(i).get());
+                        } else {
+                            relatorio.escrever(t.getMedias());
+                        }
+                    } catch (ExecutionException | RuntimeException e) {
+                        Throwable causa = (e instanceof ExecutionException) ? e.getCause() : e;
+                        saida.flush();
+                        System.err.println("Erro ao calcular médias da turma " + t.getNome() + ": " + causa.getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        saida.flush();
+                        System.err.println("Listagem interrompida.");
+                        break;
+                    }
+                    saida.write(System.lineSeparator());
+                }
+                saida.flush();
+            } catch (IOException e) { // Não ocorre com System.out, mas Writer declara
+                System.err.println("Erro ao exibir a listagem de turmas: " + e.getMessage());
             }
 
         } else {
-            System.out.println("Nenhuma turma cadastrada.");
+            System.out.println(nenhuma);
         }
     }
 
@@ -198,142 +347,323 @@ public class Sistema {
     // *******************************************************
 
     public void salvarSistema(String fileName, Entrada io) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (Professor p : profs) {
-                writer.write("PROF"); writer.newLine();
-                writer.write(p.getNome()); writer.newLine();
-                writer.write(p.getCpf()); writer.newLine();
-                writer.write(String.valueOf(p.getSalario())); writer.newLine();
+        try {
+            gravarSnapshot(fileName);
+            System.out.println("Sistema salvo com sucesso em '" + fileName + "'!");
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar o sistema em '" + fileName + "': " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Grava o snapshot completo e descarta o diário, que passa a estar contido nele.
+     * As listas e os semestres a arquivar são copiados sob o monitor do sistema (junto com o descarte
+     * das pendências), e a gravação em disco acontece fora dele, para não bloquear novos cadastros.
+     * Os arquivos de semestre são gravados antes do snapshot, que deixa de conter essas turmas.
+     */
+    private void gravarSnapshot(String fileName) throws IOException {
+        synchronized (this.travaArquivos) {
+            List<Professor> copiaProfs;
+            List<Aluno> copiaAlunos;
+            List<Turma> copiaTurmas;
+            List<Object> pendentesDescartados;
+            List<ArquivoMorto.Gravacao> semestresCopiados;
+            int geracaoCopiada;
+            synchronized (this) {
+                // Semestres encerrados vão para o arquivo morto; aqui só se decide o que arquivar e copia
+                this.arquivoMorto.arquivarAntigas(this.turmas);
+                if (this.turmasOrdenadas.tamanho() != this.turmas.size()) {
+                    this.turmasOrdenadas.reter(this.turmas);
+                }
+                semestresCopiados = this.arquivoMorto.prepararGravacao(fileName);
+                geracaoCopiada = this.geracao;
+                copiaProfs = new ArrayList<>(this.profs);
+                copiaAlunos = new ArrayList<>(this.alunos);
+                copiaTurmas = new ArrayList<>(this.turmas);
+                pendentesDescartados = new ArrayList<>(this.pendentesDiario);
+                this.pendentesDiario.clear();
+            }
+
+            try {
+                try {
+                    ArquivoMorto.gravar(semestresCopiados);
+                } finally {
+                    synchronized (this) {
+                        this.arquivoMorto.concluirGravacao(semestresCopiados);
+                    }
+                }
+                if (this.formatoSnapshot == FormatoSnapshot.BINARIO) {
+                    SnapshotBinario.salvar(fileName, copiaProfs, copiaAlunos, copiaTurmas);
+                    this.snapshotTexto.descartarSegmentos();
+                } else if (this.formatoSnapshot == FormatoSnapshot.COMPACTADO) {
+                    SnapshotCompactado.salvar(fileName, copiaProfs, copiaAlunos, copiaTurmas);
+                    this.snapshotTexto.descartarSegmentos();
+                } else {
+                    this.snapshotTexto.salvar(fileName, copiaProfs, copiaAlunos, copiaTurmas, geracaoCopiada);
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    this.pendentesDiario.addAll(0, pendentesDescartados); // Continuam pendentes para o diário
+                }
+                throw e;
             }
 
-            for (Aluno a : alunos) {
-                writer.write("ALU"); writer.newLine();
-                writer.write(a.getNome()); writer.newLine();
-                writer.write(a.getCpf()); writer.newLine();
-                writer.write(a.getMat()); writer.newLine();
+            // O snapshot completo já contém tudo o que estava no diário, então ele pode ser descartado.
+            File diario = new File(nomeDiario(fileName));
+            if (diario.exists() && !diario.delete()) {
+                System.err.println("Não foi possível descartar o diário '" + diario.getName() + "' após salvar o sistema.");
             }
+            synchronized (this) {
+                this.registrosNoDiario = 0;
+            }
+        }
+    }
+
+    // Blocos do formato texto, usados pelo snapshot (SnapshotTexto) e pelo diário
+    static void escreverProfessor(BufferedWriter writer, Professor p) throws IOException {
+        writer.write("PROF"); writer.newLine();
+        writer.write(p.getNome()); writer.newLine();
+        writer.write(p.getCpf()); writer.newLine();
+        writer.write(String.valueOf(p.getSalario())); writer.newLine();
+    }
+
+    static void escreverAluno(BufferedWriter writer, Aluno a) throws IOException {
+        writer.write("ALU"); writer.newLine();
+        writer.write(a.getNome()); writer.newLine();
+        writer.write(a.getCpf()); writer.newLine();
+        writer.write(a.getMat()); writer.newLine();
+    }
+
+    static void escreverTurma(BufferedWriter writer, Turma t) throws IOException {
+        writer.write("TUR"); writer.newLine();
+        writer.write(t.getNome()); writer.newLine();
+        writer.write(String.valueOf(t.getAno())); writer.newLine();
+        writer.write(String.valueOf(t.getSemestre())); writer.newLine();
+        writer.write(t.getProf().getCpf()); writer.newLine();
+
+        writer.write(String.valueOf(t.getAlunos().size())); writer.newLine();
+        for (Aluno alunoTurma : t.getAlunos()) {
+            writer.write(alunoTurma.getMat()); writer.newLine();
+        }
 
-            for (Turma t : turmas) {
-                writer.write("TUR"); writer.newLine();
-                writer.write(t.getNome()); writer.newLine();
-                writer.write(String.valueOf(t.getAno())); writer.newLine();
-                writer.write(String.valueOf(t.getSemestre())); writer.newLine();
-                writer.write(t.getProf().getCpf()); writer.newLine();
+        writer.write(String.valueOf(t.getAvs().size())); writer.newLine();
+        for (Avaliacao aval : t.getAvs()) {
+            if (aval instanceof Prova) {
+                Prova prova = (Prova) aval;
+                writer.write("PROV"); writer.newLine();
+                writer.write(prova.getNome()); writer.newLine();
+                writer.write(String.valueOf(prova.getData().getDia())); writer.newLine();
+                writer.write(String.valueOf(prova.getData().getMes())); writer.newLine();
+                writer.write(String.valueOf(prova.getData().getAno())); writer.newLine();
+                writer.write(String.valueOf(prova.getValor())); writer.newLine();
+                writer.write(String.valueOf(prova.getNQuestoes())); writer.newLine();
 
-                writer.write(String.valueOf(t.getAlunos().size())); writer.newLine();
-                for (Aluno alunoTurma : t.getAlunos()) {
-                    writer.write(alunoTurma.getMat()); writer.newLine();
+                for (AlunoProva ap : prova.getAlunosProvas()) {
+                    for (int q = 0; q < ap.getQtdNotas(); q++) {
+                        writer.write(String.valueOf(ap.getNota(q))); writer.newLine();
+                    }
                 }
 
-                writer.write(String.valueOf(t.getAvs().size())); writer.newLine();
-                for (Avaliacao aval : t.getAvs()) {
-                    if (aval instanceof Prova) {
-                        Prova prova = (Prova) aval;
-                        writer.write("PROV"); writer.newLine();
-                        writer.write(prova.getNome()); writer.newLine();
-                        writer.write(String.valueOf(prova.getData().getDia())); writer.newLine();
-                        writer.write(String.valueOf(prova.getData().getMes())); writer.newLine();
-                        writer.write(String.valueOf(prova.getData().getAno())); writer.newLine();
-                        writer.write(String.valueOf(prova.getValor())); writer.newLine();
-                        writer.write(String.valueOf(prova.getNQuestoes())); writer.newLine();
-
-                        for (AlunoProva ap : prova.getAlunosProvas()) {
-                            for (Double notaQuestao : ap.getNotas()) {
-                                writer.write(String.valueOf(notaQuestao)); writer.newLine();
-                            }
-                        }
+            } else if (aval instanceof Trabalho) {
+                Trabalho trabalho = (Trabalho) aval;
+                writer.write("TRAB"); writer.newLine();
+                writer.write(trabalho.getNome()); writer.newLine();
+                writer.write(String.valueOf(trabalho.getData().getDia())); writer.newLine();
+                writer.write(String.valueOf(trabalho.getData().getMes())); writer.newLine();
+                writer.write(String.valueOf(trabalho.getData().getAno())); writer.newLine();
+                writer.write(String.valueOf(trabalho.getValor())); writer.newLine();
+                writer.write(String.valueOf(trabalho.getNIntegrantes())); writer.newLine();
+                writer.write(String.valueOf(trabalho.getGrupos().size())); writer.newLine();
 
-                    } else if (aval instanceof Trabalho) {
-                        Trabalho trabalho = (Trabalho) aval;
-                        writer.write("TRAB"); writer.newLine();
-                        writer.write(trabalho.getNome()); writer.newLine();
-                        writer.write(String.valueOf(trabalho.getData().getDia())); writer.newLine();
-                        writer.write(String.valueOf(trabalho.getData().getMes())); writer.newLine();
-                        writer.write(String.valueOf(trabalho.getData().getAno())); writer.newLine();
-                        writer.write(String.valueOf(trabalho.getValor())); writer.newLine();
-                        writer.write(String.valueOf(trabalho.getNIntegrantes())); writer.newLine();
-                        writer.write(String.valueOf(trabalho.getGrupos().size())); writer.newLine();
-
-                        for (GrupoTrabalho gt : trabalho.getGrupos()) {
-                            writer.write(String.valueOf(gt.getAlunos().size())); writer.newLine();
-                            for (Aluno alunoGrupo : gt.getAlunos()) {
-                                writer.write(alunoGrupo.getMat()); writer.newLine();
-                            }
-                            writer.write(String.valueOf(gt.getNota())); writer.newLine();
-                        }
+                for (GrupoTrabalho gt : trabalho.getGrupos()) {
+                    writer.write(String.valueOf(gt.getAlunos().size())); writer.newLine();
+                    for (Aluno alunoGrupo : gt.getAlunos()) {
+                        writer.write(alunoGrupo.getMat()); writer.newLine();
                     }
+                    writer.write(String.valueOf(gt.getNota())); writer.newLine();
                 }
             }
-            writer.write("FIM"); writer.newLine();
-            System.out.println("Sistema salvo com sucesso em '" + fileName + "'!");
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar o sistema em '" + fileName + "': " + e.getMessage());
-            throw e;
         }
     }
 
+    // *******************************************************
+    // ************ MÉTODOS DO DIÁRIO DE ALTERAÇÕES (dados.journal) ***********
+    // *******************************************************
+
+    /**
+     * Deriva o nome do diário a partir do nome do snapshot (ex.: "dados.txt" -> "dados.journal").
+     * @param fileName O nome do arquivo de snapshot.
+     * @return O nome do arquivo de diário correspondente.
+     */
+    public static String nomeDiario(String fileName) {
+        return trocarExtensao(fileName, ".journal");
+    }
+
+    // Troca a extensão de fileName (ex.: "dados.txt" -> "dados" + extensao)
+    static String trocarExtensao(String fileName, String extensao) {
+        int ponto = fileName.lastIndexOf('.');
+        int barra = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf(File.separatorChar));
+        String base = (ponto > barra) ? fileName.substring(0, ponto) : fileName;
+        return base + extensao;
+    }
+
+    public synchronized int getRegistrosNoDiario() {
+        return registrosNoDiario + pendentesDiario.size();
+    }
+
+    /**
+     * Registra um cadastro para ser anexado ao diário (PROF, ALU ou TUR, no mesmo formato do snapshot).
+     * Com um ServicoPersistencia definido, a gravação fica para a thread de persistência;
+     * sem ele, o registro é anexado imediatamente.
+     * Não faz nada enquanto o diário estiver desativado (por exemplo, durante o carregamento).
+     * Chamado com o monitor do sistema já adquirido (novoProf/novoAluno/novaTurma).
+     * @param registro O Professor, Aluno ou Turma recém-cadastrado.
+     */
+    private void registrarNoDiario(Object registro) {
+        if (this.arquivoDiario == null) {
+            return;
+        }
+        this.pendentesDiario.add(registro);
+        if (this.servicoPersistencia != null) {
+            this.servicoPersistencia.notificarAlteracao(this.pendentesDiario.size());
+        } else {
+            gravarPendencias();
+        }
+    }
+
+    /**
+     * Anexa ao diário, em uma única abertura do arquivo, todos os cadastros pendentes.
+     * Em caso de erro, os registros continuam pendentes para a próxima tentativa (ou para o snapshot final).
+     */
+    public void gravarPendencias() {
+        synchronized (this.travaArquivos) {
+            List<Object> lote;
+            String diario;
+            synchronized (this) {
+                if (this.pendentesDiario.isEmpty() || this.arquivoDiario == null) {
+                    return;
+                }
+                lote = new ArrayList<>(this.pendentesDiario);
+                this.pendentesDiario.clear();
+                diario = this.arquivoDiario;
+            }
+
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(diario, true))) {
+                for (Object registro : lote) {
+                    if (registro instanceof Professor) {
+                        escreverProfessor(writer, (Professor) registro);
+                    } else if (registro instanceof Aluno) {
+                        escreverAluno(writer, (Aluno) registro);
+                    } else if (registro instanceof Turma) {
+                        escreverTurma(writer, (Turma) registro);
+                    }
+                }
+                synchronized (this) {
+                    this.registrosNoDiario += lote.size();
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    this.pendentesDiario.addAll(0, lote);
+                }
+                System.err.println("Erro ao registrar alterações no diário '" + diario + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compacta o diário em um snapshot completo quando ele atinge LIMITE_REGISTROS_DIARIO registros.
+     * @param fileName O nome do arquivo de snapshot (ex.: "dados.txt").
+     * @param io A instância de Entrada repassada a salvarSistema.
+     * @return true se a compactação foi realizada.
+     * @throws IOException se ocorrer erro ao gravar o snapshot.
+     */
+    public boolean compactarDiarioSeNecessario(String fileName, Entrada io) throws IOException {
+        int registros = getRegistrosNoDiario();
+        if (registros < LIMITE_REGISTROS_DIARIO) {
+            return false;
+        }
+        System.out.println("Diário atingiu " + registros + " registros. Compactando em '" + fileName + "'...");
+        salvarSistema(fileName, io);
+        return true;
+    }
+
+    /**
+     * Versão silenciosa de compactarDiarioSeNecessario, usada pela thread de persistência
+     * para não intercalar mensagens com a interação do usuário.
+     * @return true se a compactação foi realizada.
+     * @throws IOException se ocorrer erro ao gravar o snapshot.
+     */
+    boolean compactarDiario(String fileName) throws IOException {
+        if (getRegistrosNoDiario() < LIMITE_REGISTROS_DIARIO) {
+            return false;
+        }
+        gravarSnapshot(fileName);
+        return true;
+    }
+
     // *******************************************************
     // ************ MÉTODOS AUXILIARES DE CONSUMO DE DADOS (PARA carregarSistema) ***********
     // *******************************************************
 
     /**
      * Consome (lê e descarta) os dados de uma avaliação (Prova ou Trabalho)
-     * de um Scanner, sem tentar processá-los, para sincronizar o arquivo.
-     * @param fileScanner O Scanner do arquivo.
+     * de um LeitorDados, sem tentar processá-los, para sincronizar o arquivo.
+     * @param leitor O leitor do arquivo.
      * @param io A instância de Entrada para usar os métodos de leitura de arquivo.
      * @param tipoAval O tipo da avaliação ("PROV" ou "TRAB").
      * @param numAlunosTurma O número de alunos na turma (necessário para Prova).
      */
-    private void consumeAvaliacaoData(Scanner fileScanner, Entrada io, String tipoAval, Integer numAlunosTurma) {
-        io.lerLinhaArquivo(fileScanner); // Nome
-        io.lerInteiroArquivo(fileScanner); // Dia
-        io.lerInteiroArquivo(fileScanner); // Mes
-        io.lerInteiroArquivo(fileScanner); // Ano
-        io.lerDoubleArquivo(fileScanner); // Valor
+    private void consumeAvaliacaoData(LeitorDados leitor, Entrada io, String tipoAval, Integer numAlunosTurma) {
+        io.lerLinhaArquivo(leitor); // Nome
+        io.lerInteiroArquivo(leitor); // Dia
+        io.lerInteiroArquivo(leitor); // Mes
+        io.lerInteiroArquivo(leitor); // Ano
+        io.lerDoubleArquivo(leitor); // Valor
 
         if (tipoAval != null && tipoAval.equalsIgnoreCase("PROV")) {
-            Integer nQuestoes = io.lerInteiroArquivo(fileScanner);
+            Integer nQuestoes = io.lerInteiroArquivo(leitor);
             if (nQuestoes != null && numAlunosTurma != null) {
                 for (int k = 0; k < numAlunosTurma * nQuestoes; k++) {
-                    io.lerDoubleArquivo(fileScanner); // Consome cada nota
+                    io.lerDoubleArquivo(leitor); // Consome cada nota
                 }
             }
         } else if (tipoAval != null && tipoAval.equalsIgnoreCase("TRAB")) {
-            io.lerInteiroArquivo(fileScanner); // nIntegrantes
-            Integer nGrupos = io.lerInteiroArquivo(fileScanner);
+            io.lerInteiroArquivo(leitor); // nIntegrantes
+            Integer nGrupos = io.lerInteiroArquivo(leitor);
             if (nGrupos != null) {
                 for (int j = 0; j < nGrupos; j++) {
-                    Integer qtdAlunosGrupo = io.lerInteiroArquivo(fileScanner);
+                    Integer qtdAlunosGrupo = io.lerInteiroArquivo(leitor);
                     if (qtdAlunosGrupo != null) {
                         for (int k = 0; k < qtdAlunosGrupo; k++) {
-                            io.lerLinhaArquivo(fileScanner); // Matrícula do aluno no grupo
+                            io.lerLinhaArquivo(leitor); // Matrícula do aluno no grupo
                         }
                     }
-                    io.lerDoubleArquivo(fileScanner); // Nota do grupo
+                    io.lerDoubleArquivo(leitor); // Nota do grupo
                 }
             }
         }
     }
 
     /**
-     * Consome (lê e descarta) todos os dados restantes de uma Turma do Scanner,
+     * Consome (lê e descarta) todos os dados restantes de uma Turma do LeitorDados,
      * para sincronizar o arquivo após um erro de carregamento da turma.
-     * @param fileScanner O Scanner do arquivo.
+     * @param leitor O leitor do arquivo.
      * @param io A instância de Entrada para usar os métodos de leitura de arquivo.
      */
-    private void consumeTurmaData(Scanner fileScanner, Entrada io) {
-        Integer numAlunos = io.lerInteiroArquivo(fileScanner); // Consome numAlunos
+    private void consumeTurmaData(LeitorDados leitor, Entrada io) {
+        Integer numAlunos = io.lerInteiroArquivo(leitor); // Consome numAlunos
         if (numAlunos != null) {
             for (int i = 0; i < numAlunos; i++) {
-                io.lerLinhaArquivo(fileScanner); // Consome matrículas dos alunos
+                io.lerLinhaArquivo(leitor); // Consome matrículas dos alunos
             }
         }
 
-        Integer numAvs = io.lerInteiroArquivo(fileScanner); // Consome numAvs
+        Integer numAvs = io.lerInteiroArquivo(leitor); // Consome numAvs
         if (numAvs != null) {
             for (int i = 0; i < numAvs; i++) {
-                String tipoAval = io.lerLinhaArquivo(fileScanner); // Consome tipo (PROV/TRAB)
-                consumeAvaliacaoData(fileScanner, io, tipoAval, numAlunos); // Chama o método auxiliar
+                String tipoAval = io.lerLinhaArquivo(leitor); // Consome tipo (PROV/TRAB)
+                consumeAvaliacaoData(leitor, io, tipoAval, numAlunos); // Chama o método auxiliar
             }
         }
     }
@@ -344,184 +674,441 @@ public class Sistema {
     public void carregarSistema(String fileName, Entrada io) {
         this.resetSistema(); // Limpa o sistema atual antes de carregar novos dados
         System.out.println("Tentando carregar sistema de '" + fileName + "'...");
+        RelatorioCarregamento relatorio = new RelatorioCarregamento(fileName);
+        synchronized (this) {
+            this.relatorioCarregamento = relatorio;
+        }
 
-        try (Scanner fileScanner = new Scanner(new FileInputStream(fileName))) {
-            String tag;
-            while ((tag = io.lerLinhaArquivo(fileScanner)) != null) {
-                if (tag.equalsIgnoreCase("PROF")) {
-                    String nome = io.lerLinhaArquivo(fileScanner);
-                    String cpf = io.lerLinhaArquivo(fileScanner);
-                    Double salario = io.lerDoubleArquivo(fileScanner);
-                    if (nome != null && cpf != null && salario != null) {
-                        try {
-                            novoProf(new Professor(nome, cpf, salario));
-                        } catch (IllegalArgumentException e) {
-                            System.err.println("Erro ao carregar professor do arquivo: " + e.getMessage());
-                        }
-                    } else {
-                        System.err.println("Dados incompletos para PROF no arquivo. Pulando para a próxima tag.");
+        GravacaoAtomica.descartarTemporario(fileName);
+        synchronized (this) {
+            this.arquivoMorto.abrir(fileName, io); // Antes de ler as turmas, para conferir duplicatas nos semestres arquivados
+            this.turmasOrdenadas.iniciarCarga(); // As turmas lidas são ordenadas de uma vez no final
+        }
+
+        try {
+            VerificacaoSnapshot verificacao;
+            if (SnapshotBinario.ehSnapshotBinario(fileName)) {
+                verificacao = SnapshotBinario.carregar(this, fileName, relatorio);
+            } else if (SnapshotCompactado.ehSnapshotCompactado(fileName)) {
+                verificacao = SnapshotCompactado.carregar(this, fileName, io, relatorio);
+            } else {
+                // Passada de verificação sobre os bytes antes de interpretar os dados
+                long inicioVerificacao = System.nanoTime();
+                verificacao = VerificacaoSnapshot.verificarTexto(fileName);
+                relatorio.registrarTempo(RelatorioCarregamento.Etapa.VERIFICACAO, System.nanoTime() - inicioVerificacao);
+                verificacao.relatar();
+                // Só um arquivo íntegro tem as notas bem formadas, podendo pulá-las sem interpretar
+                FonteCarregamento fonte = null;
+                if (verificacao.isIntegro()) {
+                    fonte = new FonteCarregamento(fileName);
+                    synchronized (this) {
+                        this.fonteCarregamento = fonte;
                     }
-                } else if (tag.equalsIgnoreCase("ALU")) {
-                    String nome = io.lerLinhaArquivo(fileScanner);
-                    String cpf = io.lerLinhaArquivo(fileScanner);
-                    String matricula = io.lerLinhaArquivo(fileScanner);
-                    if (nome != null && cpf != null && matricula != null) {
-                        try {
-                            novoAluno(new Aluno(nome, cpf, matricula));
-                        } catch (IllegalArgumentException e) {
-                            System.err.println("Erro ao carregar aluno do arquivo: " + e.getMessage());
-                        }
-                    } else {
-                        System.err.println("Dados incompletos para ALU no arquivo. Pulando para a próxima tag.");
+                }
+                IndiceSnapshot indice = IndiceSnapshot.ler(fileName, verificacao);
+                if (indice != null && CarregamentoParalelo.compensa(indice)) {
+                    CarregamentoParalelo.carregar(this, fileName, indice, io, fonte, relatorio);
+                } else {
+                    try (LeitorDados leitor = new LeitorDados(fileName)) {
+                        leitor.setRelatorio(relatorio);
+                        lerRegistros(leitor, io, fonte);
+                    }
+                }
+            }
+            synchronized (this) {
+                verificacao.conferirTotais(this.profs.size(), this.alunos.size(), this.turmas.size());
+            }
+            System.out.println("Sistema carregado com sucesso de '" + fileName + "'!");
+        } catch (FileNotFoundException e) {
+            System.out.println("Arquivo de dados '" + fileName + "' não encontrado. Iniciando sistema vazio.");
+        } catch (Exception e) {
+            System.err.println("Erro inesperado ao carregar o sistema: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Reaplica sobre o snapshot os cadastros feitos desde a última compactação
+        String nomeDiario = nomeDiario(fileName);
+        int reaplicados = 0;
+        long inicioCorte = -1;
+        long inicioDiario = System.nanoTime();
+        try (LeitorDados diario = new LeitorDados(nomeDiario)) {
+            diario.setRelatorio(relatorio);
+            reaplicados = lerRegistros(diario, io);
+            inicioCorte = diario.getInicioCorte();
+            System.out.println("Diário '" + nomeDiario + "' reaplicado: " + reaplicados + " registro(s).");
+        } catch (FileNotFoundException e) {
+            // Sem diário: nada foi cadastrado desde o último snapshot
+        } catch (Exception e) {
+            System.err.println("Erro inesperado ao reaplicar o diário '" + nomeDiario + "': " + e.getMessage());
+            e.printStackTrace();
+        }
+        if (inicioCorte >= 0) {
+            // Sem isso, o próximo append continuaria o registro cortado e seria lido como parte dele
+            try (RandomAccessFile diario = new RandomAccessFile(nomeDiario, "rw")) {
+                diario.setLength(inicioCorte);
+                reaplicados--;
+                System.out.println("Registro incompleto no fim do diário '" + nomeDiario + "' descartado.");
+            } catch (IOException e) {
+                System.err.println("Não foi possível descartar o registro incompleto no fim do diário '" + nomeDiario + "': " + e.getMessage());
+            }
+        }
+        relatorio.registrarTempo(RelatorioCarregamento.Etapa.DIARIO, System.nanoTime() - inicioDiario);
+        relatorio.relatar(); // Um resumo limitado, em vez de uma linha por problema
+
+        // A partir daqui, novos cadastros passam a ser anexados ao diário e inseridos já na ordem da listagem
+        synchronized (this) {
+            this.turmasOrdenadas.terminarCarga();
+            this.arquivoDiario = nomeDiario;
+            this.registrosNoDiario = reaplicados;
+        }
+    }
+
+    /**
+     * Lê registros PROF/ALU/TUR de um LeitorDados até "FIM" ou o fim do arquivo.
+     * Usado para o snapshot (dados.txt), para o diário (dados.journal) e para os trechos do
+     * snapshot lidos sequencialmente por CarregamentoParalelo.
+     * @param leitor O leitor do arquivo.
+     * @param io A instância de Entrada para usar os métodos de leitura de arquivo.
+     * @return O número de registros encontrados.
+     */
+    int lerRegistros(LeitorDados leitor, Entrada io) {
+        return lerRegistros(leitor, io, null);
+    }
+
+    /**
+     * Como lerRegistros(leitor, io), mas, se 'fonte' não for null, as notas das provas e os grupos
+     * dos trabalhos são pulados e só lidos de 'fonte' no primeiro acesso (ver adiarNotasProva).
+     */
+    int lerRegistros(LeitorDados leitor, Entrada io, FonteCarregamento fonte) {
+        return lerRegistros(leitor, io, fonte, null);
+    }
+
+    /**
+     * Como lerRegistros(leitor, io, fonte), mas, se 'turmasLidas' não for null, as turmas lidas vão para
+     * ela em vez de serem cadastradas com novaTurma (usado pelo arquivo morto).
+     */
+    int lerRegistros(LeitorDados leitor, Entrada io, FonteCarregamento fonte, List<Turma> turmasLidas) {
+        RelatorioCarregamento relatorio = leitor.getRelatorio();
+        int registros = 0;
+        String tag;
+        // Cada registro é cronometrado até a leitura da próxima tag
+        RelatorioCarregamento.Etapa etapa = null;
+        long inicioRegistro = 0;
+        long posicaoRegistro = -1; // Início, no arquivo, do registro sendo lido
+        while ((tag = io.lerLinhaArquivo(leitor)) != null) {
+            long agora = System.nanoTime();
+            if (etapa != null) {
+                relatorio.registrarTempo(etapa, agora - inicioRegistro);
+            }
+            etapa = null;
+            inicioRegistro = agora;
+            posicaoRegistro = leitor.getPosicaoUltimaLinha();
+            if (tag.equalsIgnoreCase("PROF") || tag.equalsIgnoreCase("ALU") || tag.equalsIgnoreCase("TUR")) {
+                registros++;
+            }
+            if (tag.equalsIgnoreCase("PROF")) {
+                etapa = RelatorioCarregamento.Etapa.PROFESSORES;
+                String nome = io.lerLinhaArquivo(leitor);
+                String cpf = io.lerLinhaArquivo(leitor);
+                Double salario = io.lerDoubleArquivo(leitor);
+                if (nome != null && cpf != null && salario != null) {
+                    try {
+                        novoProf(new Professor(nome, cpf, salario));
+                    } catch (IllegalArgumentException e) {
+                        relatorio.registrar(RelatorioCarregamento.Categoria.CADASTRO_RECUSADO, leitor.getNumeroLinha(),
+                                () -> "Erro ao carregar professor do arquivo: " + e.getMessage());
                     }
-                } else if (tag.equalsIgnoreCase("TUR")) {
-                    String nomeTurma = io.lerLinhaArquivo(fileScanner);
-                    Integer ano = io.lerInteiroArquivo(fileScanner);
-                    Integer semestre = io.lerInteiroArquivo(fileScanner);
-                    String cpfProfessor = io.lerLinhaArquivo(fileScanner);
-
-                    if (nomeTurma == null || ano == null || semestre == null || cpfProfessor == null) {
-                        System.err.println("Dados incompletos para TUR (informações básicas) no arquivo. Pulando para a próxima tag.");
-                        continue;
+                } else {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                            () -> "Dados incompletos para PROF no arquivo. Pulando para a próxima tag.");
+                }
+            } else if (tag.equalsIgnoreCase("ALU")) {
+                etapa = RelatorioCarregamento.Etapa.ALUNOS;
+                String nome = io.lerLinhaArquivo(leitor);
+                String cpf = io.lerLinhaArquivo(leitor);
+                String matricula = io.lerLinhaArquivo(leitor);
+                if (nome != null && cpf != null && matricula != null) {
+                    try {
+                        novoAluno(new Aluno(nome, cpf, matricula));
+                    } catch (IllegalArgumentException e) {
+                        relatorio.registrar(RelatorioCarregamento.Categoria.CADASTRO_RECUSADO, leitor.getNumeroLinha(),
+                                () -> "Erro ao carregar aluno do arquivo: " + e.getMessage());
                     }
+                } else {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                            () -> "Dados incompletos para ALU no arquivo. Pulando para a próxima tag.");
+                }
+            } else if (tag.equalsIgnoreCase("TUR")) {
+                etapa = RelatorioCarregamento.Etapa.TURMAS;
+                String nomeTurma = io.lerLinhaArquivo(leitor);
+                Integer ano = io.lerInteiroArquivo(leitor);
+                Integer semestre = io.lerInteiroArquivo(leitor);
+                String cpfProfessor = io.lerLinhaArquivo(leitor);
 
-                    Professor profTurma = encontrarProfessor(cpfProfessor);
-                    if (profTurma == null) {
-                        System.err.println("Professor com CPF " + cpfProfessor + " não encontrado para a turma " + nomeTurma + ". Turma não será carregada. Consumindo dados restantes da turma.");
-                        consumeTurmaData(fileScanner, io); // Consume o resto dos dados da turma
-                        continue;
+                if (nomeTurma == null || ano == null || semestre == null || cpfProfessor == null) {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                            () -> "Dados incompletos para TUR (informações básicas) no arquivo. Pulando para a próxima tag.");
+                    continue;
+                }
+
+                Professor profTurma = encontrarProfessor(cpfProfessor);
+                if (profTurma == null) {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.PROFESSOR_NAO_ENCONTRADO, leitor.getNumeroLinha(),
+                            () -> "Professor com CPF " + cpfProfessor + " não encontrado para a turma " + nomeTurma + ". Turma não será carregada. Consumindo dados restantes da turma.");
+                    consumeTurmaData(leitor, io); // Consume o resto dos dados da turma
+                    continue;
+                }
+
+                List<Aluno> alunosTurma = new ArrayList<>();
+                Integer numAlunos = io.lerInteiroArquivo(leitor);
+                if (numAlunos != null) {
+                    for (int i = 0; i < numAlunos; i++) {
+                        String matAluno = io.lerLinhaArquivo(leitor);
+                        Aluno alunoAdd = encontrarAluno(matAluno);
+                        if (alunoAdd != null) {
+                            alunosTurma.add(alunoAdd);
+                        } else {
+                            relatorio.registrar(RelatorioCarregamento.Categoria.ALUNO_NAO_ENCONTRADO, leitor.getNumeroLinha(),
+                                    () -> "Aluno com matrícula " + matAluno + " não encontrado para turma " + nomeTurma + ". Ignorando este aluno.");
+                        }
                     }
+                } else {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                            () -> "Número de alunos da turma " + nomeTurma + " não encontrado no arquivo. Pulando o restante da turma.");
+                    continue;
+                }
 
-                    List<Aluno> alunosTurma = new ArrayList<>();
-                    Integer numAlunos = io.lerInteiroArquivo(fileScanner);
-                    if (numAlunos != null) {
-                        for (int i = 0; i < numAlunos; i++) {
-                            String matAluno = io.lerLinhaArquivo(fileScanner);
-                            Aluno alunoAdd = encontrarAluno(matAluno);
-                            if (alunoAdd != null) {
-                                alunosTurma.add(alunoAdd);
+                List<Avaliacao> avaliacoesTurma = new ArrayList<>();
+                Integer numAvs = io.lerInteiroArquivo(leitor);
+                if (numAvs != null) {
+                    for (int i = 0; i < numAvs; i++) {
+                        String tipoAval = io.lerLinhaArquivo(leitor);
+                        // Renomeadas as variáveis para evalDia, evalMes, evalAno
+                        String nomeAval = io.lerLinhaArquivo(leitor);
+                        Integer evalDia = io.lerInteiroArquivo(leitor);
+                        Integer evalMes = io.lerInteiroArquivo(leitor);
+                        Integer evalAno = io.lerInteiroArquivo(leitor);
+                        Double valor = io.lerDoubleArquivo(leitor);
+
+                        if (tipoAval == null || nomeAval == null || evalDia == null || evalMes == null || evalAno == null || valor == null) {
+                            int numeroAval = i + 1;
+                            relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                                    () -> "Dados básicos de avaliação incompletos para turma " + nomeTurma + ", avaliação " + numeroAval + ". Consumindo dados restantes da avaliação.");
+                            consumeAvaliacaoData(leitor, io, tipoAval, numAlunos);
+                            continue;
+                        }
+                        Data dataAval = new Data(evalDia, evalMes, evalAno); // Usando evalDia, evalMes, evalAno
+
+                        if (tipoAval.equalsIgnoreCase("PROV")) {
+                            Integer nQuestoes = io.lerInteiroArquivo(leitor);
+                            if (nQuestoes == null) {
+                                relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                                        () -> "Número de questões da prova não encontrado para turma " + nomeTurma + ", avaliação " + nomeAval + ". Consumindo dados restantes da avaliação.");
+                                consumeAvaliacaoData(leitor, io, tipoAval, numAlunos);
+                                continue;
+                            }
+                            Prova prova = new Prova(nomeAval, dataAval, valor, nQuestoes);
+                            if (fonte != null) {
+                                adiarNotasProva(prova, leitor, fonte, alunosTurma, io);
                             } else {
-                                System.err.println("Aluno com matrícula " + matAluno + " não encontrado para turma " + nomeTurma + ". Ignorando este aluno.");
+                                lerNotasProva(leitor, io, prova, alunosTurma);
                             }
-                        }
-                    } else {
-                        System.err.println("Número de alunos da turma " + nomeTurma + " não encontrado no arquivo. Pulando o restante da turma.");
-                        continue;
-                    }
+                            avaliacoesTurma.add(prova);
 
-                    List<Avaliacao> avaliacoesTurma = new ArrayList<>();
-                    Integer numAvs = io.lerInteiroArquivo(fileScanner);
-                    if (numAvs != null) {
-                        for (int i = 0; i < numAvs; i++) {
-                            String tipoAval = io.lerLinhaArquivo(fileScanner);
-                            // Renomeadas as variáveis para evalDia, evalMes, evalAno
-                            String nomeAval = io.lerLinhaArquivo(fileScanner);
-                            Integer evalDia = io.lerInteiroArquivo(fileScanner);
-                            Integer evalMes = io.lerInteiroArquivo(fileScanner);
-                            Integer evalAno = io.lerInteiroArquivo(fileScanner);
-                            Double valor = io.lerDoubleArquivo(fileScanner);
-
-                            if (tipoAval == null || nomeAval == null || evalDia == null || evalMes == null || evalAno == null || valor == null) {
-                                System.err.println("Dados básicos de avaliação incompletos para turma " + nomeTurma + ", avaliação " + (i + 1) + ". Consumindo dados restantes da avaliação.");
-                                consumeAvaliacaoData(fileScanner, io, tipoAval, numAlunos);
+                        } else if (tipoAval.equalsIgnoreCase("TRAB")) {
+                            Integer nIntegrantes = io.lerInteiroArquivo(leitor);
+                            Integer nGrupos = io.lerInteiroArquivo(leitor);
+                            if (nIntegrantes == null || nGrupos == null) {
+                                relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                                        () -> "Dados de trabalho incompletos para turma " + nomeTurma + ", avaliação " + nomeAval + ". Consumindo dados restantes da avaliação.");
+                                consumeAvaliacaoData(leitor, io, tipoAval, numAlunos);
                                 continue;
                             }
-                            Data dataAval = new Data(evalDia, evalMes, evalAno); // Usando evalDia, evalMes, evalAno
-
-                            if (tipoAval.equalsIgnoreCase("PROV")) {
-                                Integer nQuestoes = io.lerInteiroArquivo(fileScanner);
-                                if (nQuestoes == null) {
-                                    System.err.println("Número de questões da prova não encontrado para turma " + nomeTurma + ", avaliação " + nomeAval + ". Consumindo dados restantes da avaliação.");
-                                    consumeAvaliacaoData(fileScanner, io, tipoAval, numAlunos);
-                                    continue;
-                                }
-                                Prova prova = new Prova(nomeAval, dataAval, valor, nQuestoes);
-                                for (Aluno alunoProva : alunosTurma) {
-                                    AlunoProva ap = new AlunoProva(alunoProva);
-                                    for (int q = 0; q < nQuestoes; q++) {
-                                        Double notaQuestao = io.lerDoubleArquivo(fileScanner);
-                                        if (notaQuestao != null) {
-                                            ap.adicionarNota(notaQuestao);
-                                        } else {
-                                            System.err.println("Nota de questão incompleta para aluno " + alunoProva.getNome() + " na prova " + nomeAval + ". Consumindo notas restantes da avaliação.");
-                                            for(int remainingQ = q; remainingQ < nQuestoes; remainingQ++) {
-                                                io.lerDoubleArquivo(fileScanner); // Consome para sincronizar
-                                            }
-                                            break;
-                                        }
-                                    }
-                                    prova.adicionarAlunoProva(ap);
-                                }
-                                avaliacoesTurma.add(prova);
-
-                            } else if (tipoAval.equalsIgnoreCase("TRAB")) {
-                                Integer nIntegrantes = io.lerInteiroArquivo(fileScanner);
-                                Integer nGrupos = io.lerInteiroArquivo(fileScanner);
-                                if (nIntegrantes == null || nGrupos == null) {
-                                    System.err.println("Dados de trabalho incompletos para turma " + nomeTurma + ", avaliação " + nomeAval + ". Consumindo dados restantes da avaliação.");
-                                    consumeAvaliacaoData(fileScanner, io, tipoAval, numAlunos);
-                                    continue;
-                                }
-                                Trabalho trabalho = new Trabalho(nomeAval, dataAval, valor, nIntegrantes);
-                                for (int g = 0; g < nGrupos; g++) {
-                                    GrupoTrabalho gt = new GrupoTrabalho();
-                                    Integer qtdAlunosGrupo = io.lerInteiroArquivo(fileScanner);
-                                    if (qtdAlunosGrupo == null) {
-                                        System.err.println("Quantidade de alunos de grupo incompleta para trabalho " + nomeAval + ", grupo " + (g+1) + ". Consumindo notas restantes do grupo.");
-                                        io.lerDoubleArquivo(fileScanner); // Consome a nota do grupo
-                                        break;
-                                    }
-                                    for (int k = 0; k < qtdAlunosGrupo; k++) {
-                                        String matAlunoGrupo = io.lerLinhaArquivo(fileScanner);
-                                        Aluno alunoGrupo = encontrarAluno(matAlunoGrupo);
-                                        if (alunoGrupo != null) {
-                                            gt.adicionarAluno(alunoGrupo);
-                                        } else {
-                                            System.err.println("Aluno " + matAlunoGrupo + " do grupo não encontrado para trabalho " + nomeAval + ". Ignorando.");
-                                        }
-                                    }
-                                    Double notaGrupo = io.lerDoubleArquivo(fileScanner);
-                                    if (notaGrupo != null) {
-                                        gt.setNota(notaGrupo);
-                                    } else {
-                                        System.err.println("Nota de grupo incompleta para trabalho " + nomeAval + ", grupo " + (g+1) + ". Ignorando.");
-                                    }
-                                    trabalho.adicionarGrupo(gt);
-                                }
-                                avaliacoesTurma.add(trabalho);
-                            } else { // Tipo de avaliação desconhecido
-                                System.err.println("Tipo de avaliação desconhecido no arquivo: '" + tipoAval + "'. Consumindo dados restantes da avaliação.");
-                                consumeAvaliacaoData(fileScanner, io, tipoAval, numAlunos); // Tenta consumir o resto
-                                continue; // Pula para a próxima avaliação
+                            Trabalho trabalho = new Trabalho(nomeAval, dataAval, valor, nIntegrantes);
+                            if (fonte != null) {
+                                adiarGruposTrabalho(trabalho, leitor, fonte, nGrupos, io);
+                            } else {
+                                lerGruposTrabalho(leitor, io, trabalho, nGrupos, null);
                             }
+                            avaliacoesTurma.add(trabalho);
+                        } else { // Tipo de avaliação desconhecido
+                            relatorio.registrar(RelatorioCarregamento.Categoria.TIPO_DESCONHECIDO, leitor.getNumeroLinha(),
+                                    () -> "Tipo de avaliação desconhecido no arquivo: '" + tipoAval + "'. Consumindo dados restantes da avaliação.");
+                            consumeAvaliacaoData(leitor, io, tipoAval, numAlunos); // Tenta consumir o resto
+                            continue; // Pula para a próxima avaliação
                         }
-                    } else {
-                        System.err.println("Número de avaliações da turma " + nomeTurma + " não encontrado no arquivo. Pulando o restante da turma.");
-                        continue;
                     }
+                } else {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                            () -> "Número de avaliações da turma " + nomeTurma + " não encontrado no arquivo. Pulando o restante da turma.");
+                    continue;
+                }
 
-                    try {
-                        Turma t = new Turma(nomeTurma, ano, semestre, profTurma, alunosTurma.toArray(new Aluno[0]), avaliacoesTurma.toArray(new Avaliacao[0]));
+                try {
+                    Turma t = new Turma(nomeTurma, ano, semestre, profTurma, alunosTurma.toArray(new Aluno[0]), avaliacoesTurma.toArray(new Avaliacao[0]));
+                    if (turmasLidas != null) {
+                        turmasLidas.add(t);
+                        t.vincularAvaliacoes();
+                    } else {
                         novaTurma(t);
-                    } catch (IllegalArgumentException e) {
-                        System.err.println("Erro ao carregar turma do arquivo: " + e.getMessage());
                     }
+                } catch (IllegalArgumentException e) {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.CADASTRO_RECUSADO, leitor.getNumeroLinha(),
+                            () -> "Erro ao carregar turma do arquivo: " + e.getMessage());
+                }
 
-                } else if (tag.equalsIgnoreCase("FIM")) {
+            } else if (tag.equalsIgnoreCase("FIM")) {
+                if (turmasLidas == null) { // Semestres arquivados são lidos sob demanda, sem mensagem no meio da listagem
                     System.out.println("Fim do arquivo de dados.");
+                }
+                break;
+            } else {
+                String tagLida = tag;
+                relatorio.registrar(RelatorioCarregamento.Categoria.TIPO_DESCONHECIDO, leitor.getNumeroLinha(),
+                        () -> "Tag desconhecida no arquivo de dados: '" + tagLida + "'. Pulando para a próxima tag principal.");
+            }
+        }
+        if (etapa != null) {
+            relatorio.registrarTempo(etapa, System.nanoTime() - inicioRegistro);
+        }
+        // Os dados terminaram no meio do último registro (um append interrompido, no diário)
+        if (posicaoRegistro >= 0 && leitor.isCortado()) {
+            leitor.setInicioCorte(posicaoRegistro);
+        }
+        return registros;
+    }
+
+    // *******************************************************
+    // ******** NOTAS DE PROVAS E GRUPOS DE TRABALHOS ********
+    // *******************************************************
+
+    // Lê as notas de cada aluno da turma (na ordem da turma) para a prova
+    private void lerNotasProva(LeitorDados leitor, Entrada io, Prova prova, List<Aluno> alunosTurma) {
+        long inicio = System.nanoTime();
+        RelatorioCarregamento relatorio = leitor.getRelatorio();
+        int nQuestoes = prova.getNQuestoes();
+        for (Aluno alunoProva : alunosTurma) {
+            AlunoProva ap = new AlunoProva(alunoProva, nQuestoes);
+            for (int q = 0; q < nQuestoes; q++) {
+                Double notaQuestao = io.lerDoubleArquivo(leitor);
+                if (notaQuestao != null) {
+                    ap.adicionarNota(notaQuestao);
+                } else {
+                    relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                            () -> "Nota de questão incompleta para aluno " + alunoProva.getNome() + " na prova " + prova.getNome() + ". Consumindo notas restantes da avaliação.");
+                    for(int remainingQ = q; remainingQ < nQuestoes; remainingQ++) {
+                        io.lerDoubleArquivo(leitor); // Consome para sincronizar
+                    }
                     break;
+                }
+            }
+            try {
+                prova.adicionarAlunoProva(ap);
+            } catch (IllegalArgumentException e) {
+                relatorio.registrar(RelatorioCarregamento.Categoria.CADASTRO_RECUSADO, leitor.getNumeroLinha(),
+                        () -> "Erro ao carregar notas da prova " + prova.getNome() + ": " + e.getMessage());
+            }
+        }
+        relatorio.registrarTempo(RelatorioCarregamento.Etapa.PROVAS, System.nanoTime() - inicio);
+    }
+
+    // Lê os grupos do trabalho, com as matrículas dos integrantes e a nota de cada grupo. As matrículas são
+    // buscadas em 'alunos', se não for null, ou em encontrarAluno.
+    private void lerGruposTrabalho(LeitorDados leitor, Entrada io, Trabalho trabalho, int nGrupos, Map<String, Aluno> alunos) {
+        long inicio = System.nanoTime();
+        RelatorioCarregamento relatorio = leitor.getRelatorio();
+        for (int g = 0; g < nGrupos; g++) {
+            GrupoTrabalho gt = new GrupoTrabalho();
+            int numeroGrupo = g + 1;
+            Integer qtdAlunosGrupo = io.lerInteiroArquivo(leitor);
+            if (qtdAlunosGrupo == null) {
+                relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                        () -> "Quantidade de alunos de grupo incompleta para trabalho " + trabalho.getNome() + ", grupo " + numeroGrupo + ". Consumindo notas restantes do grupo.");
+                io.lerDoubleArquivo(leitor); // Consome a nota do grupo
+                break;
+            }
+            for (int k = 0; k < qtdAlunosGrupo; k++) {
+                String matAlunoGrupo = io.lerLinhaArquivo(leitor);
+                Aluno alunoGrupo = (alunos == null) ? encontrarAluno(matAlunoGrupo)
+                        : (matAlunoGrupo == null) ? null : alunos.get(matAlunoGrupo);
+                if (alunoGrupo != null) {
+                    gt.adicionarAluno(alunoGrupo);
                 } else {
-                    System.err.println("Tag desconhecida no arquivo de dados: '" + tag + "'. Pulando para a próxima tag principal.");
+                    relatorio.registrar(RelatorioCarregamento.Categoria.ALUNO_NAO_ENCONTRADO, leitor.getNumeroLinha(),
+                            () -> "Aluno " + matAlunoGrupo + " do grupo não encontrado para trabalho " + trabalho.getNome() + ". Ignorando.");
                 }
             }
-            System.out.println("Sistema carregado com sucesso de '" + fileName + "'!");
-        } catch (FileNotFoundException e) {
-            System.out.println("Arquivo de dados '" + fileName + "' não encontrado. Iniciando sistema vazio.");
-        } catch (IOException e) {
-            System.err.println("Erro de leitura ao carregar o sistema de '" + fileName + "': " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Erro inesperado ao carregar o sistema: " + e.getMessage());
-            e.printStackTrace();
+            Double notaGrupo = io.lerDoubleArquivo(leitor);
+            if (notaGrupo != null) {
+                gt.setNota(notaGrupo);
+            } else {
+                relatorio.registrar(RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, leitor.getNumeroLinha(),
+                        () -> "Nota de grupo incompleta para trabalho " + trabalho.getNome() + ", grupo " + numeroGrupo + ". Ignorando.");
+            }
+            try {
+                trabalho.adicionarGrupo(gt);
+            } catch (IllegalArgumentException e) {
+                relatorio.registrar(RelatorioCarregamento.Categoria.CADASTRO_RECUSADO, leitor.getNumeroLinha(),
+                        () -> "Erro ao carregar grupo do trabalho " + trabalho.getNome() + ": " + e.getMessage());
+            }
+        }
+        relatorio.registrarTempo(RelatorioCarregamento.Etapa.TRABALHOS, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Guarda a posição das notas da prova no arquivo e as pula sem interpretar; lerNotasProva só as
+     * lê de 'fonte' no primeiro acesso (Prova.adiarCarga). Problemas nas notas são relatados nesse momento.
+     */
+    void adiarNotasProva(Prova prova, LeitorDados leitor, FonteCarregamento fonte, List<Aluno> alunosTurma, Entrada io) {
+        long inicio = System.nanoTime();
+        long posicao = leitor.getPosicao();
+        int linha = leitor.getNumeroLinha();
+        leitor.pularLinhas(alunosTurma.size() * prova.getNQuestoes());
+        prova.adiarCarga(() -> {
+            Prova lida = new Prova(prova.getNome(), prova.getData(), prova.getValor(), prova.getNQuestoes());
+            LeitorDados trecho = fonte.abrir(posicao, linha);
+            lerNotasProva(trecho, io, lida, alunosTurma);
+            trecho.getRelatorio().relatar();
+            return lida.getAlunosProvas();
+        });
+        leitor.getRelatorio().registrarTempo(RelatorioCarregamento.Etapa.PROVAS, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Como adiarNotasProva, para os grupos de um trabalho. Só as quantidades de integrantes são
+     * interpretadas, para saber quantas linhas pular. As matrículas são resolvidas depois em uma cópia
+     * imutável do índice de alunos feita agora, com os mesmos alunos que a leitura imediata veria: a carga
+     * adiada roda com o monitor do Trabalho e não pode esperar pelo do Sistema, que gravarSnapshot segura
+     * ao ler os grupos.
+     */
+    void adiarGruposTrabalho(Trabalho trabalho, LeitorDados leitor, FonteCarregamento fonte, int nGrupos, Entrada io) {
+        long inicio = System.nanoTime();
+        long posicao = leitor.getPosicao();
+        int linha = leitor.getNumeroLinha();
+        for (int g = 0; g < nGrupos; g++) {
+            Integer qtdAlunosGrupo = leitor.lerInteiro();
+            if (qtdAlunosGrupo == null) {
+                leitor.pularLinhas(1); // Mesma sincronização de lerGruposTrabalho
+                break;
+            }
+            leitor.pularLinhas(Math.max(qtdAlunosGrupo, 0) + 1); // Matrículas e nota do grupo
+        }
+        Map<String, Aluno> alunosSnapshot = copiarAlunosPorMatricula();
+        trabalho.adiarCarga(() -> {
+            Trabalho lido = new Trabalho(trabalho.getNome(), trabalho.getData(), trabalho.getValor(), trabalho.getNIntegrantes());
+            LeitorDados trecho = fonte.abrir(posicao, linha);
+            lerGruposTrabalho(trecho, io, lido, nGrupos, alunosSnapshot);
+            trecho.getRelatorio().relatar();
+            return lido.getGrupos();
+        });
+        leitor.getRelatorio().registrarTempo(RelatorioCarregamento.Etapa.TRABALHOS, System.nanoTime() - inicio);
+    }
+
+    // Cópia imutável do índice de matrículas, refeita só depois de novos cadastros de alunos
+    private synchronized Map<String, Aluno> copiarAlunosPorMatricula() {
+        if (this.copiaAlunosPorMatricula == null) {
+            this.copiaAlunosPorMatricula = Map.copyOf(this.alunosPorMatricula);
         }
+        return this.copiaAlunosPorMatricula;
     }
 }
\ No newline at end of file
@@ -0,0 +1,584 @@
+package Notas;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot binário do sistema, alternativo ao formato texto de dados.txt.
+ *
+ * Layout (inteiros e doubles em big-endian, como DataOutputStream):
+ * <pre>
+ * cabeçalho : "NOTB" | int versão | long posição da tabela de strings
+ * registros : byte tag ('P', 'A' ou 'T') | int tamanho | conteúdo
+ *             ... terminados pela tag 'F'
+ * strings   : int quantidade | (int tamanho | bytes UTF-8) ...
+ * trailer   : int profs | int alunos | int turmas | long CRC32 dos registros | long CRC32 das strings
+ * </pre>
+ * Dentro dos registros, nomes, CPFs e matrículas são índices na tabela de strings, gravada uma
+ * única vez. Até a versão 3, as notas das provas e dos grupos eram doubles crus (8 bytes cada).
+ * A partir da versão 4, cada nota é um byte de codificação seguido do valor: em centésimos como
+ * short (3 bytes no total) ou int (5 bytes) quando isso reproduz o double exatamente, o que vale
+ * para as notas digitadas com até duas casas decimais, ou o double cru (9 bytes) nos demais casos.
+ * A partir da versão 3, turmas, provas e grupos se referem a professores e alunos pelo número
+ * do seu registro P ou A (0, 1, ...), em vez da matrícula ou do CPF: a leitura resolve cada
+ * referência por um acesso a vetor, e todas as turmas compartilham as mesmas instâncias de
+ * Aluno e as mesmas Strings da tabela. Uma referência negativa (-1 - índice da matrícula ou CPF
+ * na tabela) indica uma pessoa que não estava entre os registros gravados.
+ * O prefixo de tamanho permite pular registros desconhecidos ou corrompidos.
+ * O trailer (a partir da versão 2) é conferido antes da leitura; arquivos da versão 1 são lidos sem verificação.
+ * A gravação é feita em um temporário renomeado atomicamente sobre o destino (ver GravacaoAtomica).
+ */
+public class SnapshotBinario {
+    public static final byte[] ASSINATURA = {'N', 'O', 'T', 'B'};
+    public static final int VERSAO = 4;
+
+    private static final byte TAG_PROF = 'P';
+    private static final byte TAG_ALU = 'A';
+    private static final byte TAG_TUR = 'T';
+    private static final byte TAG_FIM = 'F';
+    private static final byte TIPO_PROVA = 1;
+    private static final byte TIPO_TRABALHO = 2;
+    private static final byte NOTA_DOUBLE = 0;
+    private static final byte NOTA_CENTESIMOS_SHORT = 1;
+    private static final byte NOTA_CENTESIMOS_INT = 2;
+    private static final int TAMANHO_CABECALHO = 16;
+    private static final int TAMANHO_TRAILER = 3 * 4 + 2 * 8;
+
+    /**
+     * Verifica, pela assinatura no início do arquivo, se ele está no formato binário.
+     * @param fileName O arquivo a verificar.
+     * @return true se o arquivo começa com a assinatura "NOTB".
+     */
+    public static boolean ehSnapshotBinario(String fileName) {
+        try (FileInputStream in = new FileInputStream(fileName)) {
+            byte[] cabecalho = new byte[ASSINATURA.length];
+            if (in.read(cabecalho) != ASSINATURA.length) {
+                return false;
+            }
+            for (int i = 0; i < ASSINATURA.length; i++) {
+                if (cabecalho[i] != ASSINATURA[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // *******************************************************
+    // ********************** ESCRITA ************************
+    // *******************************************************
+
+    /**
+     * Grava profs, alunos e turmas no formato binário.
+     * @throws IOException se ocorrer erro de escrita.
+     */
+    public static void salvar(String fileName, List<Professor> profs, List<Aluno> alunos, List<Turma> turmas) throws IOException {
+        Dicionario dicionario = new Dicionario(profs, alunos);
+        Map<String, Integer> strings = dicionario.strings;
+        long posicaoStrings;
+        File temporario = GravacaoAtomica.arquivoTemporario(fileName);
+        CRC32 crc = new CRC32();
+
+        try (FileOutputStream fos = new FileOutputStream(temporario);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fos, 1 << 16), crc))) {
+            out.write(ASSINATURA);
+            out.writeInt(VERSAO);
+            out.writeLong(0); // Posição da tabela de strings, preenchida ao final
+            crc.reset(); // O cabeçalho não entra nas somas
+
+            long posicao = TAMANHO_CABECALHO;
+            ByteArrayOutputStream bufferRegistro = new ByteArrayOutputStream();
+            DataOutputStream registro = new DataOutputStream(bufferRegistro);
+
+            for (Professor p : profs) {
+                bufferRegistro.reset();
+                registro.writeInt(id(strings, p.getNome()));
+                registro.writeInt(id(strings, p.getCpf()));
+                registro.writeDouble(p.getSalario());
+                posicao += escreverRegistro(out, TAG_PROF, bufferRegistro);
+            }
+
+            for (Aluno a : alunos) {
+                bufferRegistro.reset();
+                registro.writeInt(id(strings, a.getNome()));
+                registro.writeInt(id(strings, a.getCpf()));
+                registro.writeInt(id(strings, a.getMat()));
+                posicao += escreverRegistro(out, TAG_ALU, bufferRegistro);
+            }
+
+            for (Turma t : turmas) {
+                bufferRegistro.reset();
+                escreverTurma(registro, dicionario, t);
+                posicao += escreverRegistro(out, TAG_TUR, bufferRegistro);
+            }
+
+            out.writeByte(TAG_FIM);
+            posicao += 1;
+            posicaoStrings = posicao;
+            long crcRegistros = crc.getValue();
+            crc.reset();
+
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            long crcStrings = crc.getValue();
+
+            out.writeInt(profs.size());
+            out.writeInt(alunos.size());
+            out.writeInt(turmas.size());
+            out.writeLong(crcRegistros);
+            out.writeLong(crcStrings);
+        } catch (IOException e) {
+            temporario.delete();
+            throw e;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(temporario, "rw")) {
+            raf.seek(ASSINATURA.length + 4);
+            raf.writeLong(posicaoStrings);
+            raf.getFD().sync();
+        } catch (IOException e) {
+            temporario.delete();
+            throw e;
+        }
+        GravacaoAtomica.substituir(temporario, fileName);
+    }
+
+    private static int id(Map<String, Integer> strings, String s) {
+        Integer id = strings.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.put(s, id);
+        }
+        return id;
+    }
+
+    // Tabela de strings e números dos registros de professores e alunos, usados como IDs nas turmas
+    private static class Dicionario {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final Map<Professor, Integer> idProfs = new IdentityHashMap<>();
+        final Map<Aluno, Integer> idAlunos = new IdentityHashMap<>();
+
+        Dicionario(List<Professor> profs, List<Aluno> alunos) {
+            for (Professor p : profs) {
+                idProfs.putIfAbsent(p, idProfs.size());
+            }
+            for (Aluno a : alunos) {
+                idAlunos.putIfAbsent(a, idAlunos.size());
+            }
+        }
+
+        int prof(Professor p) {
+            Integer id = idProfs.get(p);
+            return (id != null) ? id : -1 - id(strings, p.getCpf());
+        }
+
+        int aluno(Aluno a) {
+            Integer id = idAlunos.get(a);
+            return (id != null) ? id : -1 - id(strings, a.getMat());
+        }
+    }
+
+    private static int escreverRegistro(DataOutputStream out, byte tag, ByteArrayOutputStream conteudo) throws IOException {
+        out.writeByte(tag);
+        out.writeInt(conteudo.size());
+        conteudo.writeTo(out);
+        return 1 + 4 + conteudo.size();
+    }
+
+    private static void escreverTurma(DataOutputStream out, Dicionario dicionario, Turma t) throws IOException {
+        Map<String, Integer> strings = dicionario.strings;
+        out.writeInt(id(strings, t.getNome()));
+        out.writeInt(t.getAno());
+        out.writeInt(t.getSemestre());
+        out.writeInt(dicionario.prof(t.getProf()));
+
+        out.writeInt(t.getAlunos().size());
+        for (Aluno a : t.getAlunos()) {
+            out.writeInt(dicionario.aluno(a));
+        }
+
+        List<Avaliacao> avaliacoes = new ArrayList<>();
+        for (Avaliacao aval : t.getAvs()) {
+            if (aval instanceof Prova || aval instanceof Trabalho) {
+                avaliacoes.add(aval);
+            }
+        }
+        out.writeInt(avaliacoes.size());
+        for (Avaliacao aval : avaliacoes) {
+            out.writeByte(aval instanceof Prova ? TIPO_PROVA : TIPO_TRABALHO);
+            out.writeInt(id(strings, aval.getNome()));
+            out.writeInt(aval.getData().getDia());
+            out.writeInt(aval.getData().getMes());
+            out.writeInt(aval.getData().getAno());
+            out.writeDouble(aval.getValor());
+
+            if (aval instanceof Prova) {
+                Prova prova = (Prova) aval;
+                out.writeInt(prova.getNQuestoes());
+                out.writeInt(prova.getAlunosProvas().size());
+                for (AlunoProva ap : prova.getAlunosProvas()) {
+                    out.writeInt(dicionario.aluno(ap.getAluno()));
+                    out.writeInt(ap.getQtdNotas());
+                    for (int q = 0; q < ap.getQtdNotas(); q++) {
+                        gravarNota(out, ap.getNota(q));
+                    }
+                }
+            } else {
+                Trabalho trabalho = (Trabalho) aval;
+                out.writeInt(trabalho.getNIntegrantes());
+                out.writeInt(trabalho.getGrupos().size());
+                for (GrupoTrabalho gt : trabalho.getGrupos()) {
+                    out.writeInt(gt.getAlunos().size());
+                    for (Aluno a : gt.getAlunos()) {
+                        out.writeInt(dicionario.aluno(a));
+                    }
+                    gravarNota(out, gt.getNota());
+                }
+            }
+        }
+    }
+
+    // Grava a nota em centésimos se isso a reproduz exatamente (inclusive o sinal de -0.0), senão o double cru
+    private static void gravarNota(DataOutputStream out, double nota) throws IOException {
+        double centesimos = Math.rint(nota * 100);
+        if (centesimos / 100 == nota && Double.doubleToRawLongBits(nota) != Double.doubleToRawLongBits(-0.0)) {
+            if (centesimos >= Short.MIN_VALUE && centesimos <= Short.MAX_VALUE) {
+                out.writeByte(NOTA_CENTESIMOS_SHORT);
+                out.writeShort((int) centesimos);
+                return;
+            }
+            if (centesimos >= Integer.MIN_VALUE && centesimos <= Integer.MAX_VALUE) {
+                out.writeByte(NOTA_CENTESIMOS_INT);
+                out.writeInt((int) centesimos);
+                return;
+            }
+        }
+        out.writeByte(NOTA_DOUBLE);
+        out.writeDouble(nota);
+    }
+
+    // *******************************************************
+    // ********************** LEITURA ************************
+    // *******************************************************
+
+    /**
+     * Carrega um snapshot binário no sistema, lendo o arquivo por um FileChannel mapeado em memória.
+     * Registros com problemas são registrados no relatório e ignorados, como no formato texto.
+     * As somas do trailer são conferidas (e os problemas relatados) antes da leitura dos registros.
+     * @param s O sistema que receberá os dados (já resetado).
+     * @param fileName O arquivo binário.
+     * @param relatorio Onde os problemas e os tempos de cada etapa são registrados.
+     * @return O resultado da verificação de integridade.
+     * @throws IOException se o arquivo não puder ser lido ou o cabeçalho for inválido.
+     */
+    public static VerificacaoSnapshot carregar(Sistema s, String fileName, RelatorioCarregamento relatorio) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(fileName))) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot binário maior que 2 GB não é suportado: '" + fileName + "'.");
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+
+            buffer.position(ASSINATURA.length);
+            int versao = buffer.getInt();
+            if (versao < 1 || versao > VERSAO) {
+                throw new IOException("Versão de snapshot binário não suportada: " + versao + ".");
+            }
+            long posicaoStrings = buffer.getLong();
+            if (posicaoStrings < TAMANHO_CABECALHO || posicaoStrings > buffer.limit()) {
+                throw new IOException("Snapshot binário incompleto: tabela de strings ausente.");
+            }
+
+            long inicioVerificacao = System.nanoTime();
+            VerificacaoSnapshot verificacao = verificar(buffer, versao, (int) posicaoStrings, fileName);
+            relatorio.registrarTempo(RelatorioCarregamento.Etapa.VERIFICACAO, System.nanoTime() - inicioVerificacao);
+            verificacao.relatar();
+            if (versao >= 2 && !verificacao.isPossuiTrailer()) {
+                throw new IOException("Snapshot binário incompleto: trailer ausente.");
+            }
+
+            Referencias referencias = new Referencias(versao, lerStrings(buffer, (int) posicaoStrings), relatorio);
+
+            buffer.position(TAMANHO_CABECALHO);
+            while (buffer.position() < posicaoStrings) {
+                byte tag = buffer.get();
+                if (tag == TAG_FIM) {
+                    System.out.println("Fim do arquivo de dados.");
+                    break;
+                }
+                int tamanho = buffer.getInt();
+                int fimRegistro = buffer.position() + tamanho;
+                int profsAntes = referencias.profs.size();
+                int alunosAntes = referencias.alunos.size();
+                long inicioRegistro = System.nanoTime();
+                try {
+                    ByteBuffer registro = buffer.slice();
+                    registro.limit(tamanho);
+                    lerRegistro(s, tag, registro, referencias);
+                } catch (RuntimeException e) {
+                    referencias.registroIgnorado(tag, profsAntes, alunosAntes);
+                    // Cobre tanto dados inválidos (IllegalArgumentException) quanto registros truncados
+                    relatorio.registrar((e instanceof IllegalArgumentException) ? RelatorioCarregamento.Categoria.CADASTRO_RECUSADO
+                                    : RelatorioCarregamento.Categoria.REGISTRO_INCOMPLETO, 0,
+                            () -> "Erro ao carregar registro '" + (char) tag + "' do arquivo binário: " + e.getMessage());
+                }
+                relatorio.registrarTempo(etapa(tag), System.nanoTime() - inicioRegistro);
+                buffer.position(fimRegistro);
+            }
+            return verificacao;
+        }
+    }
+
+    // Confere o CRC32 dos registros e da tabela de strings direto sobre o buffer mapeado
+    private static VerificacaoSnapshot verificar(MappedByteBuffer buffer, int versao, int posicaoStrings, String fileName) {
+        VerificacaoSnapshot verificacao = new VerificacaoSnapshot(fileName);
+        if (versao < 2) {
+            return verificacao; // Sem somas: relatado como formato antigo
+        }
+        int posicaoTrailer = buffer.limit() - TAMANHO_TRAILER;
+        if (posicaoTrailer < posicaoStrings) {
+            return verificacao; // Sem trailer: relatado como arquivo truncado
+        }
+
+        verificacao.registrarTotais(buffer.getInt(posicaoTrailer), buffer.getInt(posicaoTrailer + 4), buffer.getInt(posicaoTrailer + 8));
+        if (crc(buffer, TAMANHO_CABECALHO, posicaoStrings) != buffer.getLong(posicaoTrailer + 12)) {
+            verificacao.adicionarProblema("Soma de verificação dos registros não confere.");
+        }
+        if (crc(buffer, posicaoStrings, posicaoTrailer) != buffer.getLong(posicaoTrailer + 20)) {
+            verificacao.adicionarProblema("Soma de verificação da tabela de strings não confere.");
+        }
+        return verificacao;
+    }
+
+    private static long crc(MappedByteBuffer buffer, int inicio, int fim) {
+        ByteBuffer trecho = buffer.duplicate();
+        trecho.position(inicio);
+        trecho.limit(fim);
+        CRC32 crc = new CRC32();
+        crc.update(trecho);
+        return crc.getValue();
+    }
+
+    private static String[] lerStrings(ByteBuffer buffer, int posicao) {
+        buffer.position(posicao);
+        String[] strings = new String[buffer.getInt()];
+        byte[] temp = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int tamanho = buffer.getInt();
+            if (tamanho > temp.length) {
+                temp = new byte[Math.max(tamanho, temp.length * 2)];
+            }
+            buffer.get(temp, 0, tamanho);
+            strings[i] = new String(temp, 0, tamanho, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    // Resolve os índices gravados nos registros: strings pela tabela e, na versão 3, professores e
+    // alunos pelo número do registro, na ordem em que foram lidos
+    private static class Referencias {
+        final int versao;
+        final String[] strings;
+        final List<Professor> profs = new ArrayList<>();
+        final List<Aluno> alunos = new ArrayList<>();
+        final RelatorioCarregamento relatorio;
+
+        Referencias(int versao, String[] strings, RelatorioCarregamento relatorio) {
+            this.versao = versao;
+            this.strings = strings;
+            this.relatorio = relatorio;
+        }
+
+        // Mantém a numeração dos registros quando um deles nem chegou a ser interpretado
+        void registroIgnorado(byte tag, int profsAntes, int alunosAntes) {
+            if (tag == TAG_PROF && profs.size() == profsAntes) {
+                profs.add(null);
+            } else if (tag == TAG_ALU && alunos.size() == alunosAntes) {
+                alunos.add(null);
+            }
+        }
+
+        Professor prof(Sistema s, int ref, String nomeTurma) {
+            Professor p;
+            String descricao;
+            if (versao < 3 || ref < 0) {
+                String cpf = strings[(versao < 3) ? ref : -1 - ref];
+                descricao = "CPF " + cpf;
+                p = s.encontrarProfessor(cpf);
+            } else {
+                descricao = "registro " + ref;
+                p = (ref < profs.size()) ? profs.get(ref) : null;
+            }
+            if (p == null) {
+                throw new IllegalArgumentException("Professor com " + descricao + " não encontrado para a turma " + nomeTurma + ". Turma não será carregada.");
+            }
+            return p;
+        }
+
+        Aluno aluno(Sistema s, int ref, String nomeTurma) {
+            Aluno a;
+            String descricao;
+            if (versao < 3 || ref < 0) {
+                String matricula = strings[(versao < 3) ? ref : -1 - ref];
+                descricao = "matrícula " + matricula;
+                a = s.encontrarAluno(matricula);
+            } else {
+                descricao = "registro " + ref;
+                a = (ref < alunos.size()) ? alunos.get(ref) : null;
+            }
+            if (a == null) {
+                String referencia = descricao;
+                relatorio.registrar(RelatorioCarregamento.Categoria.ALUNO_NAO_ENCONTRADO, 0,
+                        () -> "Aluno com " + referencia + " não encontrado para turma " + nomeTurma + ". Ignorando este aluno.");
+            }
+            return a;
+        }
+    }
+
+    // Etapa em que o tempo de um registro é contado (as provas e os trabalhos não são medidos à parte)
+    private static RelatorioCarregamento.Etapa etapa(byte tag) {
+        if (tag == TAG_PROF) {
+            return RelatorioCarregamento.Etapa.PROFESSORES;
+        } else if (tag == TAG_ALU) {
+            return RelatorioCarregamento.Etapa.ALUNOS;
+        }
+        return RelatorioCarregamento.Etapa.TURMAS;
+    }
+
+    private static void lerRegistro(Sistema s, byte tag, ByteBuffer registro, Referencias referencias) {
+        String[] strings = referencias.strings;
+        if (tag == TAG_PROF) {
+            String nome = strings[registro.getInt()];
+            String cpf = strings[registro.getInt()];
+            double salario = registro.getDouble();
+            try {
+                s.novoProf(new Professor(nome, cpf, salario));
+            } finally {
+                // Se novoProf recusar o registro (CPF repetido), as turmas apontam para o já cadastrado
+                referencias.profs.add(s.encontrarProfessor(cpf));
+            }
+        } else if (tag == TAG_ALU) {
+            String nome = strings[registro.getInt()];
+            String cpf = strings[registro.getInt()];
+            String matricula = strings[registro.getInt()];
+            try {
+                s.novoAluno(new Aluno(nome, cpf, matricula));
+            } finally {
+                referencias.alunos.add(s.encontrarAluno(matricula));
+            }
+        } else if (tag == TAG_TUR) {
+            s.novaTurma(lerTurma(s, registro, referencias));
+        } else {
+            referencias.relatorio.registrar(RelatorioCarregamento.Categoria.TIPO_DESCONHECIDO, 0,
+                    () -> "Tag desconhecida no arquivo binário: '" + (char) tag + "'. Pulando registro.");
+        }
+    }
+
+    private static Turma lerTurma(Sistema s, ByteBuffer registro, Referencias referencias) {
+        String[] strings = referencias.strings;
+        String nomeTurma = strings[registro.getInt()];
+        int ano = registro.getInt();
+        int semestre = registro.getInt();
+        Professor profTurma = referencias.prof(s, registro.getInt(), nomeTurma);
+
+        int numAlunos = registro.getInt();
+        List<Aluno> alunosTurma = new ArrayList<>(numAlunos);
+        for (int i = 0; i < numAlunos; i++) {
+            Aluno a = referencias.aluno(s, registro.getInt(), nomeTurma);
+            if (a != null) {
+                alunosTurma.add(a);
+            }
+        }
+
+        int numAvs = registro.getInt();
+        List<Avaliacao> avaliacoesTurma = new ArrayList<>(numAvs);
+        for (int i = 0; i < numAvs; i++) {
+            byte tipo = registro.get();
+            String nomeAval = strings[registro.getInt()];
+            Data dataAval = new Data(registro.getInt(), registro.getInt(), registro.getInt());
+            double valor = registro.getDouble();
+
+            if (tipo == TIPO_PROVA) {
+                Prova prova = new Prova(nomeAval, dataAval, valor, registro.getInt());
+                int nRegistros = registro.getInt();
+                for (int r = 0; r < nRegistros; r++) {
+                    Aluno a = referencias.aluno(s, registro.getInt(), nomeTurma);
+                    int qtdNotas = registro.getInt();
+                    if (a == null) {
+                        for (int q = 0; q < qtdNotas; q++) {
+                            lerNota(registro, referencias.versao);
+                        }
+                        continue;
+                    }
+                    AlunoProva ap = new AlunoProva(a, qtdNotas);
+                    for (int q = 0; q < qtdNotas; q++) {
+                        ap.adicionarNota(lerNota(registro, referencias.versao));
+                    }
+                    prova.adicionarAlunoProva(ap);
+                }
+                avaliacoesTurma.add(prova);
+            } else if (tipo == TIPO_TRABALHO) {
+                Trabalho trabalho = new Trabalho(nomeAval, dataAval, valor, registro.getInt());
+                int nGrupos = registro.getInt();
+                for (int g = 0; g < nGrupos; g++) {
+                    GrupoTrabalho gt = new GrupoTrabalho();
+                    int qtdAlunosGrupo = registro.getInt();
+                    for (int k = 0; k < qtdAlunosGrupo; k++) {
+                        Aluno a = referencias.aluno(s, registro.getInt(), nomeTurma);
+                        if (a != null) {
+                            gt.adicionarAluno(a);
+                        }
+                    }
+                    gt.setNota(lerNota(registro, referencias.versao));
+                    trabalho.adicionarGrupo(gt);
+                }
+                avaliacoesTurma.add(trabalho);
+            } else {
+                throw new IllegalArgumentException("Tipo de avaliação desconhecido no arquivo binário: " + tipo + ".");
+            }
+        }
+
+        return new Turma(nomeTurma, ano, semestre, profTurma, alunosTurma.toArray(new Aluno[0]), avaliacoesTurma.toArray(new Avaliacao[0]));
+    }
+
+    // Lê uma nota gravada por gravarNota (ou um double cru, em arquivos anteriores à versão 4)
+    private static double lerNota(ByteBuffer registro, int versao) {
+        if (versao < 4) {
+            return registro.getDouble();
+        }
+        byte codificacao = registro.get();
+        switch (codificacao) {
+            case NOTA_CENTESIMOS_SHORT:
+                return registro.getShort() / 100.0;
+            case NOTA_CENTESIMOS_INT:
+                return registro.getInt() / 100.0;
+            case NOTA_DOUBLE:
+                return registro.getDouble();
+            default:
+                throw new IllegalArgumentException("Codificação de nota desconhecida no arquivo binário: " + codificacao + ".");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Snapshot no formato texto de dados.txt (com as mesmas somas de seção e trailer), compactado em
+ * GZIP (Deflater/Inflater). As notas, gravadas como texto repetitivo ("10.0" por questão), ocupam
+ * uma fração do tamanho original.
+ *
+ * Gravação e leitura são em fluxo: a gravação formata e compacta à medida que escreve, e a leitura
+ * descompacta direto para o LeitorDados enquanto confere as somas (VerificacaoSnapshot.Verificador),
+ * sem manter o arquivo inteiro em memória. Por não permitir acesso por posição, este formato não usa
+ * o índice de turmas nem o carregamento sob demanda das notas.
+ */
+public class SnapshotCompactado {
+    // Nível do Deflater: para texto numérico, o mais rápido já compacta quase tanto quanto o máximo
+    public static final int NIVEL_PADRAO = Deflater.BEST_SPEED;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final int ASSINATURA_GZIP = 0x8b1f; // Primeiros dois bytes (little-endian) de um arquivo GZIP
+
+    /**
+     * Verifica, pela assinatura GZIP no início do arquivo, se ele está no formato compactado.
+     * @param fileName O arquivo a verificar.
+     * @return true se o arquivo começa com a assinatura GZIP.
+     */
+    public static boolean ehSnapshotCompactado(String fileName) {
+        try (FileInputStream in = new FileInputStream(fileName)) {
+            int b0 = in.read();
+            int b1 = in.read();
+            return b0 >= 0 && b1 >= 0 && (b0 | (b1 << 8)) == ASSINATURA_GZIP;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // *******************************************************
+    // ********************** ESCRITA ************************
+    // *******************************************************
+
+    public static void salvar(String fileName, List<Professor> profs, List<Aluno> alunos, List<Turma> turmas) throws IOException {
+        salvar(fileName, profs, alunos, turmas, NIVEL_PADRAO);
+    }
+
+    /**
+     * Grava profs, alunos e turmas no formato compactado, em um temporário renomeado atomicamente.
+     * @param nivel Nível de compactação do Deflater (1 a 9).
+     * @throws IOException se ocorrer erro de escrita (o snapshot anterior continua válido).
+     */
+    public static void salvar(String fileName, List<Professor> profs, List<Aluno> alunos, List<Turma> turmas, int nivel) throws IOException {
+        if (nivel < Deflater.BEST_SPEED || nivel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("O nível de compactação deve estar entre 1 e 9.");
+        }
+        File temporario = GravacaoAtomica.arquivoTemporario(fileName);
+        SomaCrc32 crcTotal = new SomaCrc32();
+        SomaCrc32 crcSecao = new SomaCrc32();
+        try (FileOutputStream fos = new FileOutputStream(temporario)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(fos, TAMANHO_BUFFER) {
+                {
+                    def.setLevel(nivel);
+                }
+            };
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new CheckedOutputStream(new CheckedOutputStream(gzip, crcTotal), crcSecao)), TAMANHO_BUFFER);
+
+            for (Professor p : profs) {
+                Sistema.escreverProfessor(writer, p);
+            }
+            SnapshotTexto.fecharSecao(writer, "PROF", profs.size(), crcSecao);
+            for (Aluno a : alunos) {
+                Sistema.escreverAluno(writer, a);
+            }
+            SnapshotTexto.fecharSecao(writer, "ALU", alunos.size(), crcSecao);
+            for (Turma t : turmas) {
+                Sistema.escreverTurma(writer, t);
+            }
+            SnapshotTexto.fecharSecao(writer, "TUR", turmas.size(), crcSecao);
+
+            writer.write("FIM"); writer.newLine();
+            writer.flush();
+            writer.write(VerificacaoSnapshot.PREFIXO_TOTAL + profs.size() + " " + alunos.size() + " " + turmas.size()
+                    + " " + VerificacaoSnapshot.hex(crcTotal.getValue()));
+            writer.newLine();
+            writer.flush();
+            gzip.finish();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            temporario.delete();
+            throw e;
+        }
+        GravacaoAtomica.substituir(temporario, fileName);
+    }
+
+    // *******************************************************
+    // *********************** LEITURA ***********************
+    // *******************************************************
+
+    /**
+     * Carrega um snapshot compactado no sistema, descompactando e conferindo as somas em uma única
+     * passada. Como a verificação termina junto com a leitura, os problemas são relatados no final.
+     * @param s O sistema que receberá os dados (já resetado).
+     * @param fileName O arquivo compactado.
+     * @param io A instância de Entrada para usar os métodos de leitura de arquivo.
+     * @param relatorio Onde os problemas e os tempos de cada etapa são registrados.
+     * @return O resultado da verificação de integridade.
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    public static VerificacaoSnapshot carregar(Sistema s, String fileName, Entrada io, RelatorioCarregamento relatorio) throws IOException {
+        VerificacaoSnapshot.Verificador verificador = new VerificacaoSnapshot.Verificador(fileName);
+        String erroDados = null;
+        try (InputStream in = verificador.verificando(new GZIPInputStream(new FileInputStream(fileName), TAMANHO_BUFFER))) {
+            try {
+                LeitorDados leitor = new LeitorDados(in, fileName);
+                leitor.setRelatorio(relatorio);
+                s.lerRegistros(leitor, io);
+                // O trailer vem depois de "FIM": o restante também precisa passar pelo verificador
+                byte[] resto = new byte[TAMANHO_BUFFER];
+                while (in.read(resto) > 0) {
+                    // Descartado
+                }
+            } catch (UncheckedIOException e) { // Erro de leitura dentro do LeitorDados
+                if (!dadosInvalidos(e.getCause())) {
+                    throw e;
+                }
+                erroDados = e.getCause().getMessage();
+            } catch (ZipException | EOFException e) {
+                erroDados = e.getMessage();
+            }
+        }
+        VerificacaoSnapshot verificacao = verificador.concluir();
+        if (erroDados != null) {
+            verificacao.adicionarProblema("Dados compactados inválidos ou truncados: " + erroDados);
+        }
+        verificacao.relatar();
+        return verificacao;
+    }
+
+    private static boolean dadosInvalidos(IOException e) {
+        return e instanceof ZipException || e instanceof EOFException;
+    }
+}
@@ -0,0 +1,299 @@
+package Notas;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Gravação do snapshot no formato texto de dados.txt, em segmentos.
+ *
+ * Cada gravação lembra onde ficou cada segmento no arquivo: a seção PROF, a seção ALU e o bloco TUR
+ * de cada turma (posição, tamanho e CRC32). Na gravação seguinte para o mesmo arquivo, os segmentos
+ * que não mudaram são copiados do arquivo anterior com FileChannel.transferTo, sem reformatar as
+ * notas; só as turmas alteradas (Turma.getVersao) são escritas de novo.
+ * Professores e alunos não mudam depois de cadastrados e as listas só crescem, então nas seções
+ * PROF e ALU basta copiar o trecho já gravado e escrever apenas os cadastrados depois dele.
+ *
+ * As somas CRC32 de seção e do trailer (ver VerificacaoSnapshot) são calculadas combinando os CRCs
+ * dos segmentos copiados (SomaCrc32), sem reler os bytes. Cada gravação também atualiza o índice
+ * das posições dos blocos TUR e dos registros PROF/ALU (IndiceSnapshot). O tamanho de cada registro
+ * PROF/ALU é calculado a partir das linhas gravadas, já que o writer não expõe a posição de cada um.
+ */
+public class SnapshotTexto {
+
+    // Trecho de um snapshot já gravado
+    private static class Segmento {
+        final long posicao;
+        final long tamanho;
+        final long crc;
+        final int marca; // Registros contidos (seções PROF/ALU) ou versão gravada (turmas)
+
+        Segmento(long posicao, long tamanho, long crc, int marca) {
+            this.posicao = posicao;
+            this.tamanho = tamanho;
+            this.crc = crc;
+            this.marca = marca;
+        }
+    }
+
+    // Arquivo a que os segmentos se referem; só são reaproveitados se ele não mudou desde a gravação
+    private String arquivo;
+    private long tamanhoArquivo;
+    private long modificacaoArquivo;
+    private int geracao;
+    private Segmento segmentoProfs;
+    private Segmento segmentoAlunos;
+    private long[] tamanhosProfs;  // Tamanho de cada registro das seções gravadas, para o índice
+    private long[] tamanhosAlunos;
+    private Map<Turma, Segmento> segmentosTurmas = new IdentityHashMap<>();
+    private int turmasReaproveitadas;
+
+    /**
+     * @return Quantas turmas foram copiadas do snapshot anterior, sem reformatar, na última gravação.
+     */
+    public int getTurmasReaproveitadas() {
+        return turmasReaproveitadas;
+    }
+
+    /**
+     * Esquece os segmentos gravados; a próxima gravação reescreve o snapshot inteiro.
+     */
+    public void descartarSegmentos() {
+        this.arquivo = null;
+        this.segmentoProfs = null;
+        this.segmentoAlunos = null;
+        this.tamanhosProfs = null;
+        this.tamanhosAlunos = null;
+        this.segmentosTurmas = new IdentityHashMap<>();
+    }
+
+    /**
+     * Grava o snapshot em um temporário, reaproveitando os segmentos inalterados do snapshot anterior,
+     * sincroniza com o disco e o renomeia atomicamente sobre fileName.
+     * @param geracao Identifica o conjunto de objetos gravado (muda a cada resetSistema); segmentos de
+     *                outra geração nunca são reaproveitados.
+     * @throws IOException se ocorrer erro de escrita (o snapshot anterior continua válido).
+     */
+    public void salvar(String fileName, List<Professor> profs, List<Aluno> alunos, List<Turma> turmas, int geracao) throws IOException {
+        boolean reaproveitar = segmentosValidos(fileName, geracao);
+        try {
+            gravar(fileName, profs, alunos, turmas, geracao, reaproveitar);
+        } catch (IOException e) {
+            descartarSegmentos();
+            if (!reaproveitar) {
+                throw e;
+            }
+            // A cópia do snapshot anterior falhou: grava tudo de novo
+            gravar(fileName, profs, alunos, turmas, geracao, false);
+        }
+    }
+
+    private boolean segmentosValidos(String fileName, int geracao) {
+        if (this.arquivo == null || !this.arquivo.equals(fileName) || this.geracao != geracao) {
+            return false;
+        }
+        File atual = new File(fileName);
+        return atual.length() == this.tamanhoArquivo && atual.lastModified() == this.modificacaoArquivo;
+    }
+
+    private void gravar(String fileName, List<Professor> profs, List<Aluno> alunos, List<Turma> turmas,
+                        int geracao, boolean reaproveitar) throws IOException {
+        File temporario = GravacaoAtomica.arquivoTemporario(fileName);
+        SomaCrc32 crcTotal = new SomaCrc32();
+        SomaCrc32 crcSecao = new SomaCrc32();
+        CRC32 crcTurma = new CRC32();
+        Segmento novoProfs;
+        Segmento novoAlunos;
+        Map<Turma, Segmento> novosTurmas = new IdentityHashMap<>();
+        int reaproveitadas = 0;
+        long[] posicoesTurmas = new long[turmas.size()];
+        long[] tamanhosTurmas = new long[turmas.size()];
+        long[] novosTamanhosProfs = new long[profs.size()];
+        long[] novosTamanhosAlunos = new long[alunos.size()];
+        long inicioTurmas;
+        long fimTurmas;
+        long crcArquivo;
+
+        try (FileOutputStream fos = new FileOutputStream(temporario);
+             FileChannel anterior = reaproveitar ? FileChannel.open(new File(fileName).toPath()) : null) {
+            FileChannel destino = fos.getChannel();
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new CheckedOutputStream(new CheckedOutputStream(new CheckedOutputStream(fos, crcTotal), crcSecao), crcTurma)));
+
+            long inicio = destino.position();
+            int gravados = 0;
+            if (reaproveitar && this.segmentoProfs.marca <= profs.size()) {
+                copiar(writer, anterior, this.segmentoProfs, destino, crcSecao, crcTotal);
+                gravados = this.segmentoProfs.marca;
+                System.arraycopy(this.tamanhosProfs, 0, novosTamanhosProfs, 0, gravados);
+            }
+            for (int i = gravados; i < profs.size(); i++) {
+                Professor p = profs.get(i);
+                Sistema.escreverProfessor(writer, p);
+                novosTamanhosProfs[i] = tamanhoLinhas("PROF", p.getNome(), p.getCpf(), String.valueOf(p.getSalario()));
+            }
+            writer.flush();
+            novoProfs = new Segmento(inicio, destino.position() - inicio, crcSecao.getValue(), profs.size());
+            fecharSecao(writer, "PROF", profs.size(), crcSecao);
+
+            inicio = destino.position();
+            gravados = 0;
+            if (reaproveitar && this.segmentoAlunos.marca <= alunos.size()) {
+                copiar(writer, anterior, this.segmentoAlunos, destino, crcSecao, crcTotal);
+                gravados = this.segmentoAlunos.marca;
+                System.arraycopy(this.tamanhosAlunos, 0, novosTamanhosAlunos, 0, gravados);
+            }
+            for (int i = gravados; i < alunos.size(); i++) {
+                Aluno a = alunos.get(i);
+                Sistema.escreverAluno(writer, a);
+                novosTamanhosAlunos[i] = tamanhoLinhas("ALU", a.getNome(), a.getCpf(), a.getMat());
+            }
+            writer.flush();
+            novoAlunos = new Segmento(inicio, destino.position() - inicio, crcSecao.getValue(), alunos.size());
+            fecharSecao(writer, "ALU", alunos.size(), crcSecao);
+
+            inicioTurmas = destino.position();
+            for (int i = 0; i < turmas.size(); i++) {
+                Turma t = turmas.get(i);
+                int versao = t.getVersao();
+                Segmento segmento = reaproveitar ? this.segmentosTurmas.get(t) : null;
+                inicio = destino.position();
+                // A versão muda também quando uma nota ou um grupo de uma avaliação da turma muda (Avaliacao.notaAlterada)
+                if (segmento != null && segmento.marca == versao) {
+                    copiar(writer, anterior, segmento, destino, crcSecao, crcTotal);
+                    novosTurmas.put(t, new Segmento(inicio, segmento.tamanho, segmento.crc, versao));
+                    reaproveitadas++;
+                } else {
+                    crcTurma.reset();
+                    Sistema.escreverTurma(writer, t);
+                    writer.flush();
+                    novosTurmas.put(t, new Segmento(inicio, destino.position() - inicio, crcTurma.getValue(), versao));
+                }
+                posicoesTurmas[i] = inicio;
+                tamanhosTurmas[i] = novosTurmas.get(t).tamanho;
+            }
+            fimTurmas = destino.position();
+            fecharSecao(writer, "TUR", turmas.size(), crcSecao);
+
+            writer.write("FIM"); writer.newLine();
+            writer.flush();
+            crcArquivo = crcTotal.getValue();
+            writer.write(VerificacaoSnapshot.PREFIXO_TOTAL + profs.size() + " " + alunos.size() + " " + turmas.size()
+                    + " " + VerificacaoSnapshot.hex(crcArquivo));
+            writer.newLine();
+            writer.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            temporario.delete();
+            throw e;
+        }
+        GravacaoAtomica.substituir(temporario, fileName);
+
+        File gravado = new File(fileName);
+        this.arquivo = fileName;
+        this.tamanhoArquivo = gravado.length();
+        this.modificacaoArquivo = gravado.lastModified();
+        this.geracao = geracao;
+        this.segmentoProfs = novoProfs;
+        this.segmentoAlunos = novoAlunos;
+        this.tamanhosProfs = novosTamanhosProfs;
+        this.tamanhosAlunos = novosTamanhosAlunos;
+        this.segmentosTurmas = novosTurmas;
+        this.turmasReaproveitadas = reaproveitadas;
+
+        // O índice só acelera o carregamento: se não puder ser gravado, o snapshot continua válido
+        try {
+            String[] chavesTurmas = new String[turmas.size()];
+            for (int i = 0; i < turmas.size(); i++) {
+                Turma t = turmas.get(i);
+                chavesTurmas[i] = IndiceSnapshot.chaveTurma(t.getNome(), t.getAno(), t.getSemestre());
+            }
+            String[] cpfs = new String[profs.size()];
+            for (int i = 0; i < profs.size(); i++) {
+                cpfs[i] = profs.get(i).getCpf();
+            }
+            String[] matriculas = new String[alunos.size()];
+            for (int i = 0; i < alunos.size(); i++) {
+                matriculas[i] = alunos.get(i).getMat();
+            }
+            IndiceSnapshot.Secao secaoProfs = secaoRegistros(novoProfs, novosTamanhosProfs, cpfs);
+            IndiceSnapshot.Secao secaoAlunos = secaoRegistros(novoAlunos, novosTamanhosAlunos, matriculas);
+            if (secaoProfs == null || secaoAlunos == null) {
+                secaoProfs = null;
+                secaoAlunos = null;
+            }
+            new IndiceSnapshot(this.tamanhoArquivo, crcArquivo, inicioTurmas, fimTurmas,
+                    new IndiceSnapshot.Secao(chavesTurmas, posicoesTurmas, tamanhosTurmas), secaoProfs, secaoAlunos).gravar(fileName);
+        } catch (IOException e) {
+            System.err.println("Não foi possível gravar o índice de '" + fileName + "': " + e.getMessage());
+        }
+    }
+
+    // Posições dos registros de uma seção PROF/ALU; null se os tamanhos calculados não fecham com o gravado
+    private static IndiceSnapshot.Secao secaoRegistros(Segmento secao, long[] tamanhos, String[] chaves) {
+        long[] posicoes = new long[tamanhos.length];
+        long posicao = secao.posicao;
+        for (int i = 0; i < tamanhos.length; i++) {
+            posicoes[i] = posicao;
+            posicao += tamanhos[i];
+        }
+        if (posicao != secao.posicao + secao.tamanho) {
+            return null;
+        }
+        return new IndiceSnapshot.Secao(chaves, posicoes, tamanhos);
+    }
+
+    // Bytes ocupados pelas linhas como gravadas pelo writer (cada uma seguida do separador de linha)
+    private static long tamanhoLinhas(String... linhas) {
+        long total = 0;
+        for (String linha : linhas) {
+            total += tamanhoCodificado(linha) + System.lineSeparator().length();
+        }
+        return total;
+    }
+
+    private static int tamanhoCodificado(String linha) {
+        for (int i = 0; i < linha.length(); i++) {
+            if (linha.charAt(i) >= 0x80) {
+                return linha.getBytes(Charset.defaultCharset()).length;
+            }
+        }
+        return linha.length(); // ASCII: um byte por caractere
+    }
+
+    // Copia um segmento do snapshot anterior para o novo, depois de esvaziar o buffer do writer
+    private static void copiar(BufferedWriter writer, FileChannel anterior, Segmento segmento, FileChannel destino,
+                               SomaCrc32 crcSecao, SomaCrc32 crcTotal) throws IOException {
+        writer.flush();
+        long posicao = segmento.posicao;
+        long restante = segmento.tamanho;
+        while (restante > 0) {
+            long copiados = anterior.transferTo(posicao, restante, destino);
+            if (copiados <= 0) {
+                throw new IOException("O snapshot anterior terminou antes do esperado.");
+            }
+            posicao += copiados;
+            restante -= copiados;
+        }
+        crcSecao.anexar(segmento.crc, segmento.tamanho);
+        crcTotal.anexar(segmento.crc, segmento.tamanho);
+    }
+
+    // Grava a linha de soma da seção; o flush garante que todos os bytes da seção já passaram pelo CRC
+    static void fecharSecao(BufferedWriter writer, String secao, int registros, SomaCrc32 crcSecao) throws IOException {
+        writer.flush();
+        writer.write(VerificacaoSnapshot.PREFIXO_SECAO + secao + " " + registros + " " + VerificacaoSnapshot.hex(crcSecao.getValue()));
+        writer.newLine();
+        writer.flush();
+        crcSecao.reset();
+    }
+}
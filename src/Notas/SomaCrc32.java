@@ -0,0 +1,114 @@
+package Notas;
+
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * CRC32 que, além dos bytes recebidos por update, aceita trechos já somados em outro momento
+ * (anexar), sem precisar relê-los. É o que permite copiar segmentos inalterados de um snapshot
+ * com FileChannel.transferTo e ainda assim gravar as somas corretas da seção e do arquivo.
+ *
+ * A combinação segue o algoritmo de crc32_combine da zlib (multiplicação de matrizes em GF(2)).
+ */
+public class SomaCrc32 implements Checksum {
+    private static final long POLINOMIO = 0xedb88320L;
+
+    private final CRC32 parcial = new CRC32(); // Bytes recebidos desde o último anexar
+    private long tamanhoParcial;
+    private long acumulado; // CRC de tudo o que veio antes do trecho parcial
+
+    @Override
+    public void update(int b) {
+        parcial.update(b);
+        tamanhoParcial++;
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        parcial.update(b, off, len);
+        tamanhoParcial += len;
+    }
+
+    /**
+     * Acrescenta um trecho de bytes já somado, como se ele tivesse passado por update.
+     * @param crc O CRC32 do trecho.
+     * @param tamanho O tamanho do trecho em bytes.
+     */
+    public void anexar(long crc, long tamanho) {
+        acumulado = combinar(getValue(), crc, tamanho);
+        parcial.reset();
+        tamanhoParcial = 0;
+    }
+
+    @Override
+    public long getValue() {
+        return combinar(acumulado, parcial.getValue(), tamanhoParcial);
+    }
+
+    @Override
+    public void reset() {
+        parcial.reset();
+        tamanhoParcial = 0;
+        acumulado = 0;
+    }
+
+    /**
+     * Calcula o CRC32 da concatenação de dois trechos a partir dos CRCs de cada um.
+     * @param crc1 O CRC32 do primeiro trecho.
+     * @param crc2 O CRC32 do segundo trecho.
+     * @param tamanho2 O tamanho do segundo trecho em bytes.
+     * @return O CRC32 dos dois trechos concatenados.
+     */
+    public static long combinar(long crc1, long crc2, long tamanho2) {
+        if (tamanho2 <= 0) {
+            return crc1;
+        }
+        long[] par = new long[32];   // Operador para 2^k bits zero, k par
+        long[] impar = new long[32]; // Operador para 2^k bits zero, k ímpar
+
+        // Operador para um único bit zero
+        impar[0] = POLINOMIO;
+        long linha = 1;
+        for (int n = 1; n < 32; n++) {
+            impar[n] = linha;
+            linha <<= 1;
+        }
+        quadrado(par, impar);  // 2 bits zero
+        quadrado(impar, par);  // 4 bits zero
+
+        // Aplica a crc1 tantos bytes zero quanto o tamanho do segundo trecho
+        do {
+            quadrado(par, impar);
+            if ((tamanho2 & 1) != 0) {
+                crc1 = vezes(par, crc1);
+            }
+            tamanho2 >>= 1;
+            if (tamanho2 == 0) {
+                break;
+            }
+            quadrado(impar, par);
+            if ((tamanho2 & 1) != 0) {
+                crc1 = vezes(impar, crc1);
+            }
+            tamanho2 >>= 1;
+        } while (tamanho2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long vezes(long[] matriz, long vetor) {
+        long soma = 0;
+        for (int i = 0; vetor != 0; i++, vetor >>>= 1) {
+            if ((vetor & 1) != 0) {
+                soma ^= matriz[i];
+            }
+        }
+        return soma;
+    }
+
+    private static void quadrado(long[] resultado, long[] matriz) {
+        for (int n = 0; n < 32; n++) {
+            resultado[n] = vezes(matriz, matriz[n]);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package Notas;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class Trabalho extends Avaliacao {
     private int nIntegrantes;
     private List<GrupoTrabalho> grupos;
+    private Map<String, GrupoTrabalho> grupoPorCpf; // Índice invertido mantido por adicionarGrupo
+    private volatile Supplier<List<GrupoTrabalho>> cargaAdiada; // Grupos ainda no arquivo de dados (ver adiarCarga)
 
     // Construtor da classe Trabalho
     public Trabalho(String nome, Data dtAplicacao, double valor, int nIntegrantes) {
@@ -17,6 +23,7 @@ public class Trabalho extends Avaliacao {
         }
         this.nIntegrantes = nIntegrantes;
         this.grupos = new ArrayList<>();
+        this.grupoPorCpf = new HashMap<>();
     }
 
     //Getter para o número máximo de integrantes
@@ -24,9 +31,44 @@ public class Trabalho extends Avaliacao {
         return nIntegrantes;
     }
 
-    //Getter para a lista de grupos de trabalho
+    //Getter para a lista de grupos de trabalho (somente leitura; use adicionarGrupo para manter o índice por CPF)
     public List<GrupoTrabalho> getGrupos() {
-        return grupos;
+        garantirCarregado();
+        return Collections.unmodifiableList(grupos);
+    }
+
+    /**
+     * Adia a leitura dos grupos: 'carga' só é chamada no primeiro acesso a eles (getGrupos, nota ou
+     * adicionarGrupo). Usado por carregarSistema, como em Prova.adiarCarga.
+     */
+    public void adiarCarga(Supplier<List<GrupoTrabalho>> carga) {
+        this.cargaAdiada = carga;
+    }
+
+    // true se os grupos já estão em memória
+    public boolean isCarregado() {
+        return cargaAdiada == null;
+    }
+
+    // Executa a carga adiada uma única vez, mesmo com acessos simultâneos
+    private void garantirCarregado() {
+        if (this.cargaAdiada == null) {
+            return;
+        }
+        synchronized (this) {
+            Supplier<List<GrupoTrabalho>> carga = this.cargaAdiada;
+            if (carga == null) {
+                return;
+            }
+            for (GrupoTrabalho grupo : carga.get()) {
+                this.grupos.add(grupo);
+                for (Aluno aluno : grupo.getAlunos()) {
+                    this.grupoPorCpf.put(aluno.getCpf(), grupo);
+                }
+                grupo.registrarTrabalho(this);
+            }
+            this.cargaAdiada = null;
+        }
     }
 
     // Adiciona um grupo de trabalho à avaliação
@@ -35,7 +77,36 @@ public class Trabalho extends Avaliacao {
         if (grupo == null) {
             throw new IllegalArgumentException("Não é possível adicionar um grupo de trabalho nulo.");
         }
+        garantirCarregado();
+        // Um aluno só pode pertencer a um grupo por trabalho: valida todos antes de indexar qualquer um
+        for (Aluno aluno : grupo.getAlunos()) {
+            if (this.grupoPorCpf.containsKey(aluno.getCpf())) {
+                throw new IllegalArgumentException("Aluno com CPF " + aluno.getCpf() + " já pertence a outro grupo do trabalho " + this.nome + ".");
+            }
+        }
+        grupo.registrarTrabalho(this);
         this.grupos.add(grupo);
+        for (Aluno aluno : grupo.getAlunos()) {
+            this.grupoPorCpf.put(aluno.getCpf(), grupo);
+        }
+        for (Aluno aluno : grupo.getAlunos()) {
+            notaAlterada(aluno.getCpf());
+        }
+    }
+
+    // Chamado por GrupoTrabalho.adicionarAluno, antes de incluir o aluno em um grupo deste trabalho
+    void validarIntegrante(GrupoTrabalho grupo, Aluno aluno) {
+        garantirCarregado();
+        GrupoTrabalho atual = this.grupoPorCpf.get(aluno.getCpf());
+        if (atual != null && atual != grupo) {
+            throw new IllegalArgumentException("Aluno com CPF " + aluno.getCpf() + " já pertence a outro grupo do trabalho " + this.nome + ".");
+        }
+    }
+
+    // Chamado por GrupoTrabalho.adicionarAluno depois de incluir o aluno: indexa e avisa as turmas
+    void integranteIncluido(GrupoTrabalho grupo, Aluno aluno) {
+        this.grupoPorCpf.put(aluno.getCpf(), grupo);
+        notaAlterada(aluno.getCpf());
     }
 
     // Método sobrescrito para calcular a nota do aluno
@@ -46,10 +117,10 @@ public class Trabalho extends Avaliacao {
             throw new IllegalArgumentException("CPF não pode ser nulo ou vazio para buscar a nota.");
         }
 
-        for (GrupoTrabalho grupo : grupos) {
-            if (grupo.alunoNoGrupo(cpf)) {
-                return grupo.getNota();
-            }
+        garantirCarregado();
+        GrupoTrabalho grupo = grupoPorCpf.get(cpf);
+        if (grupo != null) {
+            return grupo.getNota();
         }
         return 0;
     }
@@ -1,11 +1,11 @@
 package Notas;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 
 public class Turma {
     private String nome;
@@ -15,6 +15,16 @@ public class Turma {
     private List<Aluno> alunos;
     private List<Avaliacao> avs;
 
+    // Médias em cache: calculadas sob demanda por getMedias() e descartadas quando alunos, avaliações ou notas mudam
+    private MediasTurma medias;
+    // Classificação dos alunos, ajustada aluno a aluno quando uma nota muda; null até ser montada (ver rankingCom)
+    private RankingTurma ranking;
+
+    // Incrementada a cada alteração; o snapshot texto só regrava a turma se ela mudou desde a última gravação
+    private int versao;
+
+    // true depois que a turma foi aceita (vincularAvaliacoes) e passou a receber os avisos de nota das avaliações
+    private boolean vinculada;
 
     //Construtor da classe Turma
     public Turma(String nome, int ano, int semestre, Professor prof, Aluno[] alunosArray, Avaliacao[] avsArray) {
@@ -81,102 +91,197 @@ public class Turma {
         return prof;
     }
 
+    public int getVersao() {
+        return versao;
+    }
+
+    // As listas são devolvidas somente para leitura: alterações devem passar por
+    // adicionarAluno/adicionarAvaliacao para que as médias em cache sejam descartadas e a classificação ajustada.
     public List<Aluno> getAlunos() {
-        return alunos;
+        return Collections.unmodifiableList(alunos);
     }
 
     public List<Avaliacao> getAvs() {
-        return avs;
+        return Collections.unmodifiableList(avs);
     }
 
-    // Método para calcular a média da turma
-    public void medias() {
-        System.out.println("Médias da Turma " + this.nome + "(" + this.ano + "/" + this.semestre + "):");
+    // Adiciona um aluno à turma
+    public void adicionarAluno(Aluno aluno) {
+        if (aluno == null) {
+            throw new IllegalArgumentException("Não é possível adicionar um aluno nulo à turma.");
+        }
+        this.alunos.add(aluno);
+        invalidarBoletim();
+        if (this.ranking != null) {
+            this.ranking.inserir(aluno, this.alunos.size() - 1, totalAluno(aluno.getCpf()));
+        }
+    }
 
-        if (alunos.isEmpty()) {
-            System.out.println("Não há alunos nesta turma para calcular as médias.");
-            return;
+    // Adiciona uma avaliação à turma
+    public void adicionarAvaliacao(Avaliacao avaliacao) {
+        if (avaliacao == null) {
+            throw new IllegalArgumentException("Não é possível adicionar uma avaliação nula à turma.");
         }
+        this.avs.add(avaliacao);
+        if (this.vinculada) {
+            avaliacao.registrarTurma(this);
+        }
+        invalidarBoletim();
+        this.ranking = null; // O total de todos os alunos muda
+    }
 
-        // Mapa para armazenar a média final de cada aluno
-        Map<Aluno, Double> mediasPorAluno = new HashMap<>();
-        double somaMediasGerais = 0; // Para a média da turma
+    /**
+     * Registra a turma em cada uma das suas avaliações, para receber os avisos de nota. Chamado só depois
+     * que a turma é aceita (Sistema.novaTurma, ou lida de um semestre arquivado): uma turma recusada ou
+     * descartada não fica presa às avaliações.
+     */
+    void vincularAvaliacoes() {
+        this.vinculada = true;
+        for (Avaliacao avaliacao : this.avs) {
+            avaliacao.registrarTurma(this);
+        }
+    }
 
-        for (Aluno aluno : alunos) {
-            double mediaAlunoAtual = 0;
-            for (Avaliacao aval : avs) {
-                try {
-                    double nota = aval.nota(aluno.getCpf());
-                    mediaAlunoAtual += nota;
-                } catch (IllegalArgumentException e) {
-                    System.err.println("Erro ao obter nota para " + aluno.getNome() + " na avaliação " + aval.getNome() + ": " + e.getMessage());
-                }
-            }
+    /**
+     * Chamado pelas avaliações da turma quando a nota de um aluno é incluída ou alterada
+     * (Prova.adicionarAlunoProva, Trabalho.adicionarGrupo, AlunoProva.adicionarNota,
+     * GrupoTrabalho.setNota e GrupoTrabalho.adicionarAluno): o aluno é reposicionado na
+     * classificação, sem reordenar a turma, e getPosicao/getMelhores/getPercentil ficam em dia.
+     */
+    void notaAlterada(String cpf) {
+        invalidarBoletim();
+        if (this.ranking != null && !Double.isNaN(this.ranking.getTotal(cpf))) {
+            this.ranking.atualizar(cpf, totalAluno(cpf));
+        }
+    }
 
-            double maxTotalAvaliacoes = 0;
-            for (Avaliacao aval : avs) {
-                if (aval != null) {
-                    maxTotalAvaliacoes += aval.getValor();
-                }
+    // Total do aluno nas avaliações da turma, como em MediasTurma (notas que não puderam ser obtidas contam como 0)
+    private double totalAluno(String cpf) {
+        double total = 0;
+        for (Avaliacao aval : this.avs) {
+            try {
+                total += aval.nota(cpf);
+            } catch (IllegalArgumentException e) {
+                // Relatada por getMedias(), ao exibir a nota
             }
+        }
+        return MediasTurma.limitarTotal(total, MediasTurma.valorMaximo(this.avs));
+    }
 
-            // Garante que a média do aluno não exceda o valor máximo das avaliações ou 100
-            if (mediaAlunoAtual > maxTotalAvaliacoes) {
-                mediaAlunoAtual = maxTotalAvaliacoes;
-            }
-            if (mediaAlunoAtual > 100) {
-                mediaAlunoAtual = 100;
+    /**
+     * Devolve a classificação da turma, montando-a de novo se ela ainda não existir ou se algum total
+     * não conferir com 'totais' (um por aluno, na ordem da turma).
+     */
+    RankingTurma rankingCom(double[] totais) {
+        RankingTurma atual = this.ranking;
+        boolean confere = atual != null && atual.tamanho() == totais.length;
+        for (int i = 0; confere && i < totais.length; i++) {
+            confere = Double.compare(atual.getTotal(this.alunos.get(i).getCpf()), totais[i]) == 0;
+        }
+        if (!confere) {
+            atual = new RankingTurma();
+            for (int i = 0; i < totais.length; i++) {
+                atual.inserir(this.alunos.get(i), i, totais[i]);
             }
+            this.ranking = atual;
+        }
+        return atual;
+    }
 
-            mediasPorAluno.put(aluno, mediaAlunoAtual); // Armazena a média final no mapa
-            somaMediasGerais += mediaAlunoAtual; // Soma para calcular a média geral da turma
+    // Classificação em dia para as consultas abaixo
+    private RankingTurma ranking() {
+        if (this.ranking == null || !this.vinculada) {
+            getMedias(); // Monta a classificação junto com as médias
         }
+        return this.ranking;
+    }
 
-        // Cria uma lista mutável de alunos para ser ordenada
-        List<Aluno> alunosOrdenados = new ArrayList<>(this.alunos);
+    /**
+     * @return A posição do aluno na classificação da turma (0 é o primeiro), ou -1 se ele não está nela.
+     */
+    public int getPosicao(Aluno aluno) {
+        if (aluno == null) {
+            throw new IllegalArgumentException("O aluno não pode ser nulo.");
+        }
+        return ranking().posicao(aluno.getCpf());
+    }
 
-        // Ordena a lista de alunos usando um Comparator que consulta o mapa de médias
-        Collections.sort(alunosOrdenados, new Comparator<Aluno>() {
-            @Override
-            public int compare(Aluno a1, Aluno a2) {
-                // Obtém as médias finais do mapa
-                Double media1 = mediasPorAluno.getOrDefault(a1, 0.0);
-                Double media2 = mediasPorAluno.getOrDefault(a2, 0.0);
+    /**
+     * @return Os 'k' primeiros colocados da turma (ou todos, se houver menos), em ordem.
+     */
+    public List<Aluno> getMelhores(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("A quantidade de alunos não pode ser negativa.");
+        }
+        int[] indices = ranking().primeiros(k);
+        List<Aluno> melhores = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            melhores.add(this.alunos.get(i));
+        }
+        return melhores;
+    }
 
-                // 1. Nota final da maior para a menor (decrescente)
-                int compareNota = Double.compare(media2, media1); // media2 vs media1 para ordem decrescente
-                if (compareNota != 0) {
-                    return compareNota;
-                }
+    /**
+     * @return A porcentagem (0 a 100) de alunos da turma com total menor que o do aluno, ou NaN se
+     *         ele não está na turma.
+     */
+    public double getPercentil(Aluno aluno) {
+        if (aluno == null) {
+            throw new IllegalArgumentException("O aluno não pode ser nulo.");
+        }
+        RankingTurma r = ranking();
+        double total = r.getTotal(aluno.getCpf());
+        if (Double.isNaN(total)) {
+            return Double.NaN;
+        }
+        return 100.0 * r.contarAbaixo(total) / r.tamanho();
+    }
 
-                // 2. Nome do aluno em ordem crescente
-                int compareNome = a1.getNome().compareToIgnoreCase(a2.getNome());
-                if (compareNome != 0) {
-                    return compareNome;
-                }
+    // Descarta as médias em cache (serão recalculadas na próxima chamada de getMedias()) e marca a turma como alterada
+    private void invalidarBoletim() {
+        this.versao++;
+        this.medias = null;
+    }
 
-                // 3. Matrícula do aluno em ordem crescente
-                return a1.getMat().compareToIgnoreCase(a2.getMat());
-            }
-        });
-
-        // Itera sobre a lista de alunos ordenados para exibir os resultados
-        for (Aluno aluno : alunosOrdenados) {
-            System.out.print(aluno.toString() + ": ");
-
-            for (Avaliacao aval : avs) {
-                try {
-                    double nota = aval.nota(aluno.getCpf());
-                    System.out.print(String.format("%.1f", nota) + " ");
-                } catch (IllegalArgumentException e) {
-                    System.out.print("0 (Erro) "); // Exibe 0 (Erro) se a nota não puder ser obtida
-                }
+    /**
+     * Calcula as médias da turma (notas de cada aluno em cada avaliação, totais, classificação e
+     * média da turma). O resultado é guardado e devolvido de novo até a turma mudar; numa turma ainda
+     * não vinculada às avaliações, que não seria avisada das notas alteradas, é recalculado a cada chamada.
+     */
+    public MediasTurma getMedias() {
+        MediasTurma resultado = this.medias;
+        if (resultado == null) {
+            resultado = MediasTurma.calcular(this);
+            if (this.vinculada) {
+                this.medias = resultado;
             }
-            // Obtém a média final calculada do mapa para impressão
-            System.out.println(String.format("= %.2f", mediasPorAluno.getOrDefault(aluno, 0.0)));
         }
+        return resultado;
+    }
 
-        double mediaTurma = somaMediasGerais / alunos.size();
-        System.out.printf("Média da turma: %.2f%n", mediaTurma);
+    // Método para calcular a média da turma
+    public void medias() {
+        Writer saida = RelatorioMedias.console();
+        try {
+            RelatorioMedias.escrever(getMedias(), saida);
+            saida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // System.out não lança IOException
+        }
+    }
+
+    /**
+     * Monta em memória o texto exibido por medias(), sem escrever no console. Turmas diferentes
+     * podem montar seus relatórios ao mesmo tempo (ver Sistema.listarTurmas).
+     * @return O relatório de médias da turma, com as quebras de linha do sistema.
+     */
+    public String relatorioMedias() {
+        StringBuilder texto = new StringBuilder();
+        try {
+            RelatorioMedias.escrever(getMedias(), texto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder não lança IOException
+        }
+        return texto.toString();
     }
 }
\ No newline at end of file
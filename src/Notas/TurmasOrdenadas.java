@@ -0,0 +1,194 @@
+package Notas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turmas mantidas na ordem da listagem (semestre decrescente, ano decrescente, nome da turma e nome
+ * do professor, sem diferenciar maiúsculas).
+ *
+ * Um cadastro avulso é inserido na posição certa por busca binária. Durante um carregamento
+ * (iniciarCarga/terminarCarga), as turmas só são anexadas no fim e ordenadas de uma vez ao final,
+ * em O(n log n) em vez de um deslocamento O(n) por turma.
+ *
+ * Como semestre e ano vêm primeiro na ordem, as turmas de um mesmo semestre ficam contíguas e são
+ * encontradas por busca binária (doSemestre). Turmas empatadas ficam na ordem de inserção, como no
+ * Collections.sort estável usado antes. A conferência de duplicatas (contem) usa um conjunto de
+ * chaves e não depende da ordem. Não é sincronizada: Sistema a acessa sob o seu monitor.
+ */
+class TurmasOrdenadas {
+    static final Comparator<Turma> ORDEM = new Comparator<Turma>() {
+        @Override
+        public int compare(Turma t1, Turma t2) {
+            int compareSemestre = compararSemestre(t1, t2.getAno(), t2.getSemestre());
+            if (compareSemestre != 0) {
+                return compareSemestre;
+            }
+            int compareNomeDisciplina = t1.getNome().compareToIgnoreCase(t2.getNome());
+            if (compareNomeDisciplina != 0) {
+                return compareNomeDisciplina;
+            }
+            return t1.getProf().getNome().compareToIgnoreCase(t2.getProf().getNome());
+        }
+    };
+
+    private final List<Turma> turmas = new ArrayList<>();
+    // Chave (ano, semestre, nome sem diferenciar maiúsculas) de cada turma, para conferir duplicatas em O(1)
+    private final Set<String> chaves = new HashSet<>();
+    private boolean emCarga;     // Entre iniciarCarga e terminarCarga: adicionar só anexa no fim
+    private boolean desordenada; // Há turmas anexadas ainda fora de ordem
+
+    // Compara só a chave (semestre desc, ano desc) da turma com a de (ano, semestre)
+    private static int compararSemestre(Turma t, int ano, int semestre) {
+        int compareSemestre = Integer.compare(semestre, t.getSemestre());
+        if (compareSemestre != 0) {
+            return compareSemestre;
+        }
+        return Integer.compare(ano, t.getAno());
+    }
+
+    /**
+     * Intercala duas listas já na ordem da listagem, sem reordenar: em um empate, a de 'a' vem antes.
+     * @return Uma nova lista com as turmas das duas.
+     */
+    static List<Turma> intercalar(List<Turma> a, List<Turma> b) {
+        List<Turma> todas = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (ORDEM.compare(b.get(j), a.get(i)) < 0) {
+                todas.add(b.get(j++));
+            } else {
+                todas.add(a.get(i++));
+            }
+        }
+        todas.addAll(a.subList(i, a.size()));
+        todas.addAll(b.subList(j, b.size()));
+        return todas;
+    }
+
+    // Chave de duplicata: dois nomes têm a mesma chave se e só se String.equalsIgnoreCase os considera iguais
+    private static String chave(int ano, int semestre, String nome) {
+        StringBuilder chave = new StringBuilder(nome.length() + 8);
+        chave.append(ano).append('/').append(semestre).append('/');
+        for (int i = 0; i < nome.length(); i++) {
+            chave.append(Character.toLowerCase(Character.toUpperCase(nome.charAt(i))));
+        }
+        return chave.toString();
+    }
+
+    /**
+     * Insere depois das turmas que empatam com 't', mantendo a ordem de inserção entre elas. Durante
+     * uma carga, só anexa no fim.
+     */
+    void adicionar(Turma t) {
+        this.chaves.add(chave(t.getAno(), t.getSemestre(), t.getNome()));
+        if (this.emCarga) {
+            turmas.add(t);
+            this.desordenada = true;
+            return;
+        }
+        ordenar();
+        int inicio = 0;
+        int fim = turmas.size();
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (ORDEM.compare(turmas.get(meio), t) <= 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        turmas.add(inicio, t);
+    }
+
+    // As próximas turmas vêm de um carregamento: são ordenadas todas juntas em terminarCarga
+    void iniciarCarga() {
+        this.emCarga = true;
+    }
+
+    void terminarCarga() {
+        this.emCarga = false;
+        ordenar();
+    }
+
+    // Uma única ordenação estável: turmas empatadas continuam na ordem em que foram anexadas
+    private void ordenar() {
+        if (this.desordenada) {
+            turmas.sort(ORDEM);
+            this.desordenada = false;
+        }
+    }
+
+    /**
+     * @return true se já há uma turma com o mesmo nome (sem diferenciar maiúsculas), ano e semestre.
+     */
+    boolean contem(Turma t) {
+        return this.chaves.contains(chave(t.getAno(), t.getSemestre(), t.getNome()));
+    }
+
+    void limpar() {
+        turmas.clear();
+        chaves.clear();
+        this.emCarga = false;
+        this.desordenada = false;
+    }
+
+    /**
+     * Mantém só as turmas (por identidade) que estão em 'mantidas', sem reordenar.
+     */
+    void reter(Collection<Turma> mantidas) {
+        Map<Turma, Boolean> manter = new IdentityHashMap<>(mantidas.size() * 2);
+        for (Turma t : mantidas) {
+            manter.put(t, Boolean.TRUE);
+        }
+        turmas.removeIf(t -> !manter.containsKey(t));
+        chaves.clear();
+        for (Turma t : turmas) {
+            chaves.add(chave(t.getAno(), t.getSemestre(), t.getNome()));
+        }
+    }
+
+    int tamanho() {
+        return turmas.size();
+    }
+
+    // Todas as turmas, na ordem da listagem (visão somente leitura)
+    List<Turma> getTurmas() {
+        ordenar();
+        return Collections.unmodifiableList(turmas);
+    }
+
+    /**
+     * @return As turmas de (ano, semestre), na ordem da listagem (visão somente leitura da faixa).
+     */
+    List<Turma> doSemestre(int ano, int semestre) {
+        ordenar();
+        int primeira = limite(ano, semestre, false);
+        int depois = limite(ano, semestre, true);
+        return Collections.unmodifiableList(turmas.subList(primeira, depois));
+    }
+
+    // Posição da primeira turma de (ano, semestre), ou da primeira depois delas se 'depois'
+    private int limite(int ano, int semestre, boolean depois) {
+        int inicio = 0;
+        int fim = turmas.size();
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            int comparacao = compararSemestre(turmas.get(meio), ano, semestre);
+            if (comparacao < 0 || (depois && comparacao == 0)) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+}
@@ -0,0 +1,250 @@
+package Notas;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Resultado da verificação de integridade de um snapshot.
+ *
+ * No formato texto, salvarSistema grava, como linhas de comentário (ignoradas pelo carregamento),
+ * uma soma CRC32 ao final de cada seção e um trailer com os totais depois de "FIM":
+ * <pre>
+ * PROF ... (blocos)
+ * # SECAO PROF 2 8f3a12bc       &lt;- quantidade de registros e CRC32 dos bytes da seção
+ * ALU ...
+ * # SECAO ALU 6 1c2d3e4f
+ * TUR ...
+ * # SECAO TUR 2 5a6b7c8d
+ * FIM
+ * # TOTAL 2 6 2 9e8d7c6b       &lt;- totais de PROF/ALU/TUR e CRC32 de tudo o que vem antes
+ * </pre>
+ * verificarTexto confere essas somas em uma única passada sobre os bytes, sem interpretar os dados.
+ */
+public class VerificacaoSnapshot {
+    public static final String PREFIXO_SECAO = "# SECAO ";
+    public static final String PREFIXO_TOTAL = "# TOTAL ";
+
+    private final String fileName;
+    private final List<String> problemas = new ArrayList<>();
+    private boolean possuiTrailer;
+    private boolean possuiSomas;
+    private int totalProfs = -1;
+    private int totalAlunos = -1;
+    private int totalTurmas = -1;
+    private long crcArquivo = -1; // CRC32 registrado no trailer do formato texto
+
+    public VerificacaoSnapshot(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public void adicionarProblema(String problema) {
+        this.problemas.add(problema);
+    }
+
+    public void registrarTotais(int profs, int alunos, int turmas) {
+        this.possuiTrailer = true;
+        this.possuiSomas = true;
+        this.totalProfs = profs;
+        this.totalAlunos = alunos;
+        this.totalTurmas = turmas;
+    }
+
+    public List<String> getProblemas() {
+        return problemas;
+    }
+
+    public long getCrcArquivo() {
+        return crcArquivo;
+    }
+
+    public boolean isPossuiTrailer() {
+        return possuiTrailer;
+    }
+
+    // O arquivo é íntegro se as somas conferem e o trailer (gravado por último) está presente
+    public boolean isIntegro() {
+        return problemas.isEmpty() && possuiTrailer;
+    }
+
+    /**
+     * Informa problemas de integridade em System.err; arquivos íntegros não geram mensagem.
+     * Arquivos sem nenhuma soma (gravados antes desta versão) são aceitos com um aviso.
+     */
+    public void relatar() {
+        if (isIntegro()) {
+            return;
+        }
+        if (problemas.isEmpty() && !possuiSomas) {
+            System.out.println("Arquivo '" + fileName + "' não possui somas de verificação (formato antigo). Carregando sem verificação.");
+            return;
+        }
+        if (!possuiTrailer) {
+            problemas.add("Trailer de totais ausente: o arquivo foi truncado ou a gravação não terminou.");
+        }
+        for (String problema : problemas) {
+            System.err.println("Integridade de '" + fileName + "': " + problema);
+        }
+        System.err.println("O arquivo '" + fileName + "' está corrompido; os dados carregados podem estar incompletos.");
+    }
+
+    /**
+     * Compara os totais do trailer com o que foi efetivamente carregado.
+     */
+    public void conferirTotais(int profs, int alunos, int turmas) {
+        if (!possuiTrailer) {
+            return;
+        }
+        if (profs != totalProfs || alunos != totalAlunos || turmas != totalTurmas) {
+            System.err.println("Totais carregados de '" + fileName + "' (" + profs + "/" + alunos + "/" + turmas
+                    + ") diferem dos registrados no trailer (" + totalProfs + "/" + totalAlunos + "/" + totalTurmas + ").");
+        }
+    }
+
+    // *******************************************************
+    // ************ VERIFICAÇÃO DO FORMATO TEXTO *************
+    // *******************************************************
+
+    /**
+     * Confere as somas CRC32 de um snapshot texto em uma passada sequencial.
+     * @param fileName O arquivo a verificar.
+     * @return O resultado da verificação.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    public static VerificacaoSnapshot verificarTexto(String fileName) throws IOException {
+        Verificador verificador = new Verificador(fileName);
+        try (InputStream in = new FileInputStream(fileName)) {
+            byte[] buffer = new byte[1 << 16];
+            int lidos;
+            while ((lidos = in.read(buffer)) > 0) {
+                verificador.atualizar(buffer, 0, lidos);
+            }
+        }
+        return verificador.concluir();
+    }
+
+    /**
+     * Verificação incremental do formato texto: recebe os bytes do arquivo em ordem, em trechos de
+     * qualquer tamanho, e confere cada soma ao encontrar a linha de comentário correspondente.
+     * Permite verificar um snapshot enquanto ele é lido (ex.: SnapshotCompactado), sem outra passada.
+     */
+    public static class Verificador {
+        private final VerificacaoSnapshot v;
+        private final CRC32 crcSecao = new CRC32();
+        private final CRC32 crcTotal = new CRC32();
+        private ByteArrayOutputStream comentario; // Linha atual, se começar com '#'
+        private boolean inicioLinha = true;
+
+        public Verificador(String fileName) {
+            this.v = new VerificacaoSnapshot(fileName);
+        }
+
+        public void atualizar(byte[] buffer, int inicio, int tamanho) {
+            int fim = inicio + tamanho;
+            int inicioTrecho = inicio;
+            for (int i = inicio; i < fim; i++) {
+                byte b = buffer[i];
+                if (inicioLinha && b == '#') {
+                    crcSecao.update(buffer, inicioTrecho, i - inicioTrecho);
+                    crcTotal.update(buffer, inicioTrecho, i - inicioTrecho);
+                    comentario = new ByteArrayOutputStream();
+                }
+                inicioLinha = (b == '\n');
+                if (comentario != null) {
+                    comentario.write(b);
+                    if (inicioLinha) {
+                        v.processarComentario(comentario.toByteArray(), crcSecao, crcTotal);
+                        comentario = null;
+                        inicioTrecho = i + 1;
+                    }
+                }
+            }
+            if (comentario == null) {
+                crcSecao.update(buffer, inicioTrecho, fim - inicioTrecho);
+                crcTotal.update(buffer, inicioTrecho, fim - inicioTrecho);
+            }
+        }
+
+        // Chamado depois do último byte do arquivo
+        public VerificacaoSnapshot concluir() {
+            if (comentario != null) {
+                v.processarComentario(comentario.toByteArray(), crcSecao, crcTotal);
+                comentario = null;
+            }
+            return v;
+        }
+
+        /**
+         * @return Um InputStream que repassa os bytes de 'in' e os entrega a este verificador.
+         */
+        public InputStream verificando(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        atualizar(new byte[] {(byte) b}, 0, 1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int lidos = in.read(b, off, len);
+                    if (lidos > 0) {
+                        atualizar(b, off, lidos);
+                    }
+                    return lidos;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    // Bytes pulados também precisam passar pelo verificador
+                    byte[] descarte = new byte[(int) Math.min(n, 8192)];
+                    int lidos = read(descarte, 0, descarte.length);
+                    return Math.max(lidos, 0);
+                }
+            };
+        }
+    }
+
+    private void processarComentario(byte[] linha, CRC32 crcSecao, CRC32 crcTotal) {
+        String texto = new String(linha, StandardCharsets.US_ASCII).trim();
+        if (texto.startsWith(PREFIXO_SECAO)) {
+            possuiSomas = true;
+            String[] partes = texto.substring(PREFIXO_SECAO.length()).split(" ");
+            if (partes.length != 3 || !partes[2].equals(hex(crcSecao.getValue()))) {
+                adicionarProblema("Soma de verificação da seção " + (partes.length > 0 ? partes[0] : "?") + " não confere.");
+            }
+            crcTotal.update(linha, 0, linha.length);
+            crcSecao.reset();
+        } else if (texto.startsWith(PREFIXO_TOTAL)) {
+            String[] partes = texto.substring(PREFIXO_TOTAL.length()).split(" ");
+            try {
+                registrarTotais(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]), Integer.parseInt(partes[2]));
+                crcArquivo = Long.parseLong(partes[3], 16);
+                if (!partes[3].equals(hex(crcTotal.getValue()))) {
+                    adicionarProblema("Soma de verificação do arquivo completo não confere.");
+                }
+            } catch (RuntimeException e) {
+                adicionarProblema("Trailer de totais inválido: '" + texto + "'.");
+            }
+            crcTotal.update(linha, 0, linha.length);
+            crcSecao.reset();
+        } else {
+            // Comentário comum: faz parte do conteúdo verificado
+            crcSecao.update(linha, 0, linha.length);
+            crcTotal.update(linha, 0, linha.length);
+        }
+    }
+
+    public static String hex(long crc) {
+        return String.format("%08x", crc);
+    }
+}
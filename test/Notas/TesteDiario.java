@@ -0,0 +1,84 @@
+package Notas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Reaplicação do diário (dados.journal) quando a última entrada foi cortada no meio,
+ * como acontece se o processo termina durante o append.
+ */
+class TesteDiario {
+    private static final String QUEBRA = System.lineSeparator();
+
+    @TempDir
+    Path diretorio;
+
+    private Sistema carregar(String fileName) {
+        Sistema s = new Sistema();
+        s.carregarSistema(fileName, new Entrada());
+        return s;
+    }
+
+    // Corta o diário no último registro ALU, mantendo dele só 'restante'
+    private static void cortarUltimoRegistro(String diario, String restante) throws IOException {
+        String conteudo = new String(Files.readAllBytes(new File(diario).toPath()), StandardCharsets.UTF_8);
+        String mantido = conteudo.substring(0, conteudo.lastIndexOf("ALU" + QUEBRA)) + restante;
+        try (RandomAccessFile arquivo = new RandomAccessFile(diario, "rw")) {
+            arquivo.setLength(mantido.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Test
+    void descartaEntradaCortadaNoMeioDeUmaLinha() throws IOException {
+        descartaEntradaCortadaEReaplicaAsAnteriores("ALU" + QUEBRA + "Alu");
+    }
+
+    @Test
+    void descartaEntradaCortadaEntreLinhas() throws IOException {
+        descartaEntradaCortadaEReaplicaAsAnteriores("ALU" + QUEBRA + "Aluno Dois" + QUEBRA);
+    }
+
+    private void descartaEntradaCortadaEReaplicaAsAnteriores(String restante) throws IOException {
+        String dados = diretorio.resolve("dados.txt").toString();
+        Sistema s = carregar(dados); // Sem snapshot: sistema vazio, diário ativo
+        s.novoProf(new Professor("Professor Um", "11111111111", 1000.0));
+        s.novoAluno(new Aluno("Aluno Um", "22222222222", "2025001"));
+        s.novoAluno(new Aluno("Aluno Dois", "33333333333", "2025002"));
+        cortarUltimoRegistro(Sistema.nomeDiario(dados), restante);
+
+        Sistema recarregado = carregar(dados);
+        assertEquals(1, recarregado.getProfs().size());
+        assertNotNull(recarregado.encontrarAluno("2025001"));
+        assertNull(recarregado.encontrarAluno("2025002"));
+        assertEquals(1, recarregado.getAlunos().size());
+    }
+
+    @Test
+    void cadastroDepoisDaEntradaCortadaContinuaLegivel() throws IOException {
+        String dados = diretorio.resolve("dados.txt").toString();
+        Sistema s = carregar(dados);
+        s.novoAluno(new Aluno("Aluno Um", "22222222222", "2025001"));
+        s.novoAluno(new Aluno("Aluno Dois", "33333333333", "2025002"));
+        cortarUltimoRegistro(Sistema.nomeDiario(dados), "ALU" + QUEBRA + "Alu");
+
+        Sistema recarregado = carregar(dados);
+        assertEquals(1, recarregado.getRegistrosNoDiario());
+        recarregado.novoAluno(new Aluno("Aluno Três", "44444444444", "2025003"));
+
+        Sistema depois = carregar(dados);
+        assertNotNull(depois.encontrarAluno("2025001"));
+        assertNotNull(depois.encontrarAluno("2025003"));
+        assertEquals(2, depois.getAlunos().size());
+    }
+}
@@ -0,0 +1,84 @@
+package Notas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Confere LeitorDados.lerDouble e lerInteiro contra Double.parseDouble e Integer.parseInt: o mesmo
+ * valor (bit a bit, no caso do double) ou, quando o parse recusa a linha, NumberFormatException.
+ */
+class TesteLeitorDados {
+    private static final String[] DOUBLES = {
+            "0", "0.0", "-0.0", "-0", "+0.0", "+5", "-5", "5.", ".5", "-.5", "007.50", "0000000000000000000001.5",
+            "1e3", "1E3", "-1e-3", "1e400", "1e-400", "4.9e-324", "1.7976931348623157E308", "0x1p3",
+            "NaN", "-Infinity", "Infinity", "10d", "2.5f", "6.123456789012345", "9007199254740993",
+            "12345678901234567890", "0.1000000000000000000000001", "0.0000000000000000000001",
+            "0.00000000000000000000001", " 5.0", "5.0 ", ".", "-", "+", "+-5", "1.2.3", "1_000", "abc", "   ",
+    };
+
+    private static final String[] INTEIROS = {
+            "0", "-0", "+0", "+5", "-5", "007", "0000000000012", "-0000000000012", "2147483647", "-2147483648",
+            "2147483648", "-2147483649", "99999999999", "9999999999", "00000000002147483648", "+", "-", "+-5",
+            "1e3", "1.0", " 5", "5 ", "abc", "   ",
+    };
+
+    private static LeitorDados leitor(String linha) {
+        return new LeitorDados(new ByteArrayInputStream((linha + "\n").getBytes(Charset.defaultCharset())), "teste");
+    }
+
+    @Test
+    void lerDoubleIgualAParseDouble() {
+        for (String linha : DOUBLES) {
+            conferirDouble(linha);
+        }
+        Random random = new Random(8);
+        for (int i = 0; i < 100_000; i++) {
+            double nota = (i % 2 == 0) ? random.nextInt(100_001) / 100.0 : random.nextDouble() * 100;
+            conferirDouble(String.valueOf(i % 3 == 0 ? -nota : nota));
+        }
+    }
+
+    @Test
+    void lerInteiroIgualAParseInt() {
+        for (String linha : INTEIROS) {
+            conferirInteiro(linha);
+        }
+    }
+
+    @Test
+    void fimDoArquivoDevolveNull() {
+        LeitorDados leitor = new LeitorDados(new ByteArrayInputStream(new byte[0]), "teste");
+        assertNull(leitor.lerDouble());
+        assertNull(leitor.lerInteiro());
+    }
+
+    private static void conferirDouble(String linha) {
+        double esperado;
+        try {
+            esperado = Double.parseDouble(linha);
+        } catch (NumberFormatException e) {
+            assertThrows(NumberFormatException.class, () -> leitor(linha).lerDouble(), "'" + linha + "'");
+            return;
+        }
+        assertEquals(Double.doubleToRawLongBits(esperado), Double.doubleToRawLongBits(leitor(linha).lerDouble()),
+                "'" + linha + "'");
+    }
+
+    private static void conferirInteiro(String linha) {
+        int esperado;
+        try {
+            esperado = Integer.parseInt(linha);
+        } catch (NumberFormatException e) {
+            assertThrows(NumberFormatException.class, () -> leitor(linha).lerInteiro(), "'" + linha + "'");
+            return;
+        }
+        assertEquals(esperado, leitor(linha).lerInteiro(), "'" + linha + "'");
+    }
+}
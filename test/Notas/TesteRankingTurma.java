@@ -0,0 +1,113 @@
+package Notas;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Confere a treap de RankingTurma (posição, k-ésimo colocado, k primeiros e contagem abaixo de um
+ * total) contra a ordenação completa da turma, depois de cada inclusão e alteração de total.
+ */
+class TesteRankingTurma {
+    // Um aluno da turma como a referência o vê
+    private static final class Colocado {
+        final Aluno aluno;
+        final int indice;
+        double total;
+
+        Colocado(Aluno aluno, int indice, double total) {
+            this.aluno = aluno;
+            this.indice = indice;
+            this.total = total;
+        }
+    }
+
+    // A ordem documentada em RankingTurma
+    private static final Comparator<Colocado> ORDEM = (a, b) -> {
+        int c = Double.compare(b.total, a.total);
+        if (c == 0) c = a.aluno.getNome().compareToIgnoreCase(b.aluno.getNome());
+        if (c == 0) c = a.aluno.getMat().compareToIgnoreCase(b.aluno.getMat());
+        if (c == 0) c = Integer.compare(a.indice, b.indice);
+        return c;
+    };
+
+    @Test
+    void concordaComAOrdenacaoAposInclusoesEAlteracoes() {
+        Random random = new Random(2025);
+        RankingTurma ranking = new RankingTurma();
+        List<Colocado> turma = new ArrayList<>();
+        for (int passo = 0; passo < 400; passo++) {
+            if (turma.size() < 60 || random.nextInt(3) == 0) {
+                // Poucos nomes e totais distintos, para exercitar os desempates
+                int i = turma.size();
+                Aluno aluno = new Aluno("Aluno " + random.nextInt(8), "cpf-" + i, "M" + random.nextInt(1000));
+                Colocado e = new Colocado(aluno, i, random.nextInt(11) / 2.0);
+                turma.add(e);
+                ranking.inserir(aluno, i, e.total);
+            } else {
+                Colocado e = turma.get(random.nextInt(turma.size()));
+                e.total = random.nextInt(11) / 2.0;
+                ranking.atualizar(e.aluno.getCpf(), e.total);
+            }
+            conferir(ranking, turma, random);
+        }
+    }
+
+    @Test
+    void percentilDaTurmaConcordaComAContagem() {
+        Professor prof = new Professor("Professor", "prof-1", 1000.0);
+        Aluno[] alunos = new Aluno[30];
+        Prova prova = new Prova("Prova 1", new Data(1, 3, 2025), 100, 1);
+        Random random = new Random(7);
+        AlunoProva[] registros = new AlunoProva[alunos.length];
+        for (int i = 0; i < alunos.length; i++) {
+            alunos[i] = new Aluno("Aluno " + i, "cpf-" + i, "M" + i);
+            registros[i] = new AlunoProva(alunos[i], 1);
+            registros[i].adicionarNota(random.nextInt(5));
+            prova.adicionarAlunoProva(registros[i]);
+        }
+        Turma turma = new Turma("Turma", 2025, 1, prof, alunos, new Avaliacao[] {prova});
+        turma.vincularAvaliacoes();
+
+        for (int passo = 0; passo < 50; passo++) {
+            registros[random.nextInt(alunos.length)].adicionarNota(random.nextInt(3)); // Muda o total
+            for (Aluno a : alunos) {
+                double total = prova.nota(a.getCpf());
+                int abaixo = 0;
+                for (Aluno outro : alunos) {
+                    if (prova.nota(outro.getCpf()) < total) {
+                        abaixo++;
+                    }
+                }
+                assertEquals(100.0 * abaixo / alunos.length, turma.getPercentil(a), 1e-9);
+            }
+        }
+    }
+
+    private static void conferir(RankingTurma ranking, List<Colocado> turma, Random random) {
+        List<Colocado> ordenada = new ArrayList<>(turma);
+        ordenada.sort(ORDEM);
+        assertEquals(ordenada.size(), ranking.tamanho());
+
+        int[] esperados = new int[ordenada.size()];
+        for (int p = 0; p < ordenada.size(); p++) {
+            esperados[p] = ordenada.get(p).indice;
+            assertEquals(esperados[p], ranking.indiceNaPosicao(p), "k-ésimo colocado, k = " + p);
+            assertEquals(p, ranking.posicao(ordenada.get(p).aluno.getCpf()), "posição de " + ordenada.get(p).aluno.getCpf());
+        }
+        int k = random.nextInt(ordenada.size() + 2);
+        int[] primeiros = new int[Math.min(k, esperados.length)];
+        System.arraycopy(esperados, 0, primeiros, 0, primeiros.length);
+        assertArrayEquals(primeiros, ranking.primeiros(k));
+
+        double total = random.nextInt(13) / 2.0 - 0.5;
+        long abaixo = turma.stream().filter(e -> e.total < total).count();
+        assertEquals(abaixo, ranking.contarAbaixo(total), "alunos abaixo de " + total);
+    }
+}
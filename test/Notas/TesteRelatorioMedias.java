@@ -0,0 +1,91 @@
+package Notas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Confere RelatorioMedias contra a exibição com String.format("%.1f") e "%.2f", com notas e totais
+ * que caem em empates de arredondamento (x.x5, x.xx5) e valores perto deles.
+ */
+class TesteRelatorioMedias {
+    private static final String QUEBRA = System.lineSeparator();
+
+    // Notas de uma questão: todos os centésimos e milésimos terminados em 5 até 20, e alguns casos clássicos
+    private static double[] notas(Random random) {
+        double[] notas = new double[6000];
+        for (int i = 0; i < notas.length; i++) {
+            switch (i % 4) {
+                case 0: notas[i] = (i / 4 % 200) / 10.0 + 0.05; break;   // Empate em "%.1f"
+                case 1: notas[i] = (i / 4 % 2000) / 100.0 + 0.005; break; // Empate em "%.2f"
+                case 2: notas[i] = new double[] {0.125, 0.375, 1.005, 2.675, 1.115, 8.345, 0.45, 0.95}[i / 4 % 8]; break;
+                default: notas[i] = random.nextInt(2001) / 100.0; break;
+            }
+        }
+        return notas;
+    }
+
+    private static MediasTurma criarMedias(Random random) {
+        double[] notas = notas(random);
+        int nAlunos = notas.length / 3;
+        Aluno[] alunos = new Aluno[nAlunos];
+        for (int i = 0; i < nAlunos; i++) {
+            alunos[i] = new Aluno("Aluno " + i, "cpf-" + i, "M" + i);
+        }
+        Avaliacao[] provas = new Avaliacao[3];
+        for (int p = 0; p < provas.length; p++) {
+            Prova prova = new Prova("Prova " + (p + 1), new Data(1, 3 + p, 2025), 1000, 1);
+            for (int i = 0; i < nAlunos; i++) {
+                AlunoProva ap = new AlunoProva(alunos[i], 1);
+                ap.adicionarNota(notas[i * 3 + p]);
+                prova.adicionarAlunoProva(ap);
+            }
+            provas[p] = prova;
+        }
+        return new Turma("Turma", 2025, 1, new Professor("Professor", "prof-1", 1000.0), alunos, provas).getMedias();
+    }
+
+    // A exibição de Turma.medias antes de RelatorioMedias
+    private static String comStringFormat(MediasTurma m) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Médias da Turma ").append(m.getNomeTurma()).append('(').append(m.getAno()).append('/')
+                .append(m.getSemestre()).append("):").append(QUEBRA);
+        for (int posicao = 0; posicao < m.getAlunos().size(); posicao++) {
+            int i = m.getAlunoNaPosicao(posicao);
+            sb.append(m.getAlunos().get(i)).append(": ");
+            for (int j = 0; j < m.getAvs().size(); j++) {
+                sb.append(String.format("%.1f", m.getNota(i, j))).append(' ');
+            }
+            sb.append(String.format("= %.2f", m.getTotal(i))).append(QUEBRA);
+        }
+        sb.append(String.format("Média da turma: %.2f", m.getMediaTurma())).append(QUEBRA);
+        return sb.toString();
+    }
+
+    private static void conferir() throws IOException {
+        MediasTurma medias = criarMedias(new Random(23));
+        StringBuilder saida = new StringBuilder();
+        RelatorioMedias.escrever(medias, saida);
+        assertEquals(comStringFormat(medias), saida.toString());
+    }
+
+    @Test
+    void igualAStringFormatNosEmpates() throws IOException {
+        conferir();
+    }
+
+    @Test
+    void igualAStringFormatComVirgulaDecimal() throws IOException {
+        Locale anterior = Locale.getDefault(Locale.Category.FORMAT);
+        Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag("pt-BR"));
+        try {
+            conferir();
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, anterior);
+        }
+    }
+}
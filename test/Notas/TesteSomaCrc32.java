@@ -0,0 +1,59 @@
+package Notas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Confere SomaCrc32.combinar e anexar contra um CRC32 comum dos trechos concatenados.
+ */
+class TesteSomaCrc32 {
+    private static long crc(byte[] dados, int inicio, int fim) {
+        CRC32 crc = new CRC32();
+        crc.update(dados, inicio, fim - inicio);
+        return crc.getValue();
+    }
+
+    @Test
+    void combinarIgualAoCrcDaConcatenacao() {
+        Random random = new Random(13);
+        // Inclui trechos vazios, de um byte e maiores que as potências usadas pela combinação
+        int[] tamanhos = {0, 1, 2, 3, 7, 8, 64, 1000, 4096, 65537};
+        for (int tamanho1 : tamanhos) {
+            for (int tamanho2 : tamanhos) {
+                byte[] dados = new byte[tamanho1 + tamanho2];
+                random.nextBytes(dados);
+                long esperado = crc(dados, 0, dados.length);
+                long combinado = SomaCrc32.combinar(crc(dados, 0, tamanho1), crc(dados, tamanho1, dados.length), tamanho2);
+                assertEquals(esperado, combinado, tamanho1 + " + " + tamanho2 + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void anexarTrechosIgualAoCrcDoArquivo() {
+        Random random = new Random(17);
+        byte[] dados = new byte[200_000];
+        random.nextBytes(dados);
+
+        // Alterna bytes recebidos por update com trechos já somados, como ao copiar segmentos de um snapshot
+        SomaCrc32 soma = new SomaCrc32();
+        int pos = 0;
+        while (pos < dados.length) {
+            int fim = Math.min(dados.length, pos + random.nextInt(5000));
+            if (random.nextBoolean()) {
+                soma.update(dados, pos, fim - pos);
+            } else {
+                soma.anexar(crc(dados, pos, fim), fim - pos);
+            }
+            pos = fim;
+        }
+        assertEquals(crc(dados, 0, dados.length), soma.getValue());
+
+        soma.reset();
+        assertEquals(new CRC32().getValue(), soma.getValue());
+    }
+}